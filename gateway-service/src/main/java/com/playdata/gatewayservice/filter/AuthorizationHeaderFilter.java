@@ -77,10 +77,18 @@ public class AuthorizationHeaderFilter extends AbstractGatewayFilterFactory {
             }
 
             // 사용자 정보를 클레임에서 꺼내서 헤더에 담자
+            // userId는 예전에 발급된 토큰에는 없을 수 있다. 클라이언트가 직접 보낸 X-User-Id는 항상 지운다.
+            Long userId = claims.get("userId", Long.class);
             ServerHttpRequest request = exchange.getRequest()
                     .mutate()
                     .header("X-User-Email", claims.getSubject())
                     .header("X-User-Role", claims.get("role", String.class))
+                    .headers(headers -> {
+                        headers.remove("X-User-Id");
+                        if (userId != null) {
+                            headers.set("X-User-Id", String.valueOf(userId));
+                        }
+                    })
                     .build();
 
             // 새롭게 만든 (토큰 정보를 헤더에 담은) request를 exchange에 갈아끼워서 보내자.
@@ -0,0 +1,150 @@
+package com.playdata.orderingservice.client;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playdata.orderingservice.common.dto.CommonResDto;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/*
+비동기(논블로킹) 클라이언트 공통 처리
+
+Feign 클라이언트는 응답이 올 때까지 호출한 스레드를 붙잡고 있어서, 여러 서비스 호출을 동시에 진행하려면
+호출마다 스레드가 하나씩 필요했다. 여기서는 JDK HttpClient의 sendAsync로 요청을 보내고
+CompletableFuture로 결과를 돌려준다. (응답을 기다리는 동안 스레드를 쓰지 않음)
+
+Feign 쪽과 똑같은 resilience4j 인스턴스(벌크헤드 + 서킷 브레이커 + 타임리미터)를 이름으로 꺼내서 적용하므로
+동기/비동기 호출의 실패가 같은 서킷에 함께 집계되고, 동시 호출 수 제한도 함께 나눠 쓴다.
+ */
+@Component
+@Slf4j
+public class AsyncHttpSupport {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    // 타임리미터가 시간 초과를 감지하기 위한 스케줄러 (실제 요청을 실행하지는 않음)
+    private final ScheduledExecutorService timeoutScheduler
+            = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "async-client-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    public AsyncHttpSupport(ObjectMapper objectMapper,
+                            CircuitBreakerRegistry circuitBreakerRegistry,
+                            TimeLimiterRegistry timeLimiterRegistry,
+                            BulkheadRegistry bulkheadRegistry,
+                            @Value("${ordering.clients.connect-timeout-ms:2000}") long connectTimeoutMs,
+                            @Value("${ordering.clients.http2:false}") boolean http2) {
+        this.objectMapper = objectMapper;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                // http2=true면 HTTP/2(평문은 h2c 업그레이드)를 먼저 시도하고, 상대가 지원하지 않으면 HTTP/1.1로 통신
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    // GET 요청 -> CommonResDto의 result만 꺼내서 돌려준다.
+    // resilienceName: 적용할 서킷 브레이커/타임리미터 인스턴스 이름 (userService, productService ...)
+    public <T> CompletableFuture<T> get(String resilienceName, String url, Class<T> resultType) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return send(resilienceName, request, objectMapper.getTypeFactory().constructType(resultType));
+    }
+
+    // 요청 바디를 JSON으로 보내는 POST (조회용 POST 전용. 상태를 바꾸는 요청은 Feign 클라이언트로)
+    // 결과가 목록일 때 사용 -> CommonResDto<List<E>>의 result를 꺼낸다.
+    public <E> CompletableFuture<List<E>> postForList(String resilienceName, String url, Object body,
+                                                      Class<E> elementType) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException("요청 변환 실패: " + url, e));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        return send(resilienceName, request,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, elementType));
+    }
+
+    private <T> CompletableFuture<T> send(String resilienceName, HttpRequest request, JavaType resultType) {
+        JavaType responseType = objectMapper.getTypeFactory()
+                .constructParametricType(CommonResDto.class, resultType);
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(resilienceName);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(resilienceName);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(resilienceName);
+
+        // 벌크헤드 -> 서킷 브레이커 -> 타임리미터 순서로 감싼다.
+        // 서킷 브레이커가 타임리미터 바깥쪽이라 타임아웃도 실패로 집계된다.
+        return Bulkhead.decorateCompletionStage(bulkhead,
+                        CircuitBreaker.decorateCompletionStage(circuitBreaker,
+                                timeLimiter.decorateCompletionStage(timeoutScheduler,
+                                        () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                                                .thenApply(response -> this.<T>readResult(response, responseType)))))
+                .get()
+                .toCompletableFuture();
+    }
+
+    private <T> T readResult(HttpResponse<String> response, JavaType responseType) {
+        int status = response.statusCode();
+        // Feign 호출과 같은 예외 타입으로 맞춰야 서킷 브레이커의 ignore-exceptions(4xx) 설정이 똑같이 동작한다.
+        if (status >= 500) {
+            throw new HttpServerErrorException(HttpStatusCode.valueOf(status), response.body());
+        }
+        if (status >= 400) {
+            throw new HttpClientErrorException(HttpStatusCode.valueOf(status), response.body());
+        }
+        try {
+            CommonResDto<T> body = objectMapper.readValue(response.body(), responseType);
+            return body.getResult();
+        } catch (IOException e) {
+            throw new UncheckedIOException("응답 변환 실패: " + response.uri(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.playdata.orderingservice.client;
+
+import com.playdata.orderingservice.common.hedging.HedgingExecutor;
+import com.playdata.orderingservice.common.limiter.AdaptiveConcurrencyLimiter;
+import com.playdata.orderingservice.ordering.dto.ProductResDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// ProductServiceClient(Feign)의 비동기 버전 (조회 전용)
+// 서킷 브레이커/타임리미터: productService
+// 재고 차감/예약은 순서대로 결과를 확인해야 하므로 기존 Feign 클라이언트(productServiceUpdate)를 그대로 사용.
+// Feign 호출과 같은 동시 호출 제한(productServiceLimiter)을 공유한다.
+// 조회는 멱등이므로 헤징(productServiceHedger)을 적용할 수 있다. (헤지 요청도 리미터 한도 안에서만 나감)
+@Component
+@RequiredArgsConstructor
+public class ProductServiceAsyncClient {
+
+    private final AsyncHttpSupport asyncHttpSupport;
+    private final AdaptiveConcurrencyLimiter productServiceLimiter;
+    private final HedgingExecutor productServiceHedger;
+
+    @Value("${ordering.clients.product.url:http://product-service.default.svc.cluster.local:8082}")
+    private String baseUrl;
+
+    public CompletableFuture<ProductResDto> findById(Long prodId) {
+        return productServiceHedger.execute(() -> productServiceLimiter.callAsync(
+                () -> asyncHttpSupport.get("productService", baseUrl + "/product/" + prodId, ProductResDto.class)));
+    }
+
+    public CompletableFuture<List<ProductResDto>> getProducts(List<Long> productIds) {
+        return productServiceHedger.execute(() -> productServiceLimiter.callAsync(
+                () -> asyncHttpSupport.postForList("productService", baseUrl + "/product/products",
+                        productIds, ProductResDto.class)));
+    }
+
+}
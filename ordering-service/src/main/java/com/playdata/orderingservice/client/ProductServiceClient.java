@@ -1,6 +1,8 @@
 package com.playdata.orderingservice.client;
 
 import com.playdata.orderingservice.common.dto.CommonResDto;
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.ordering.dto.ProductReserveResDto;
 import com.playdata.orderingservice.ordering.dto.ProductResDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
@@ -9,7 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map;
 
-@FeignClient(name = "product-service", url = "http://product-service.default.svc.cluster.local:8082")
+@FeignClient(name = "product-service", url = "${ordering.clients.product.url:http://product-service.default.svc.cluster.local:8082}")
 public interface ProductServiceClient {
 
     @GetMapping("/product/{prodId}")
@@ -18,9 +20,17 @@ public interface ProductServiceClient {
     @PutMapping("/product/updateQuantity")
     ResponseEntity<?> updateQuantity(@RequestBody ProductResDto productResDto);
 
+    // 차감할 수량만 전달 -> product-service가 조건부 UPDATE로 차감 (결과: 차감 성공 여부)
+    @PutMapping("/product/decreaseQuantity")
+    CommonResDto<Boolean> decreaseQuantity(@RequestBody OrderingSaveReqDto dto);
+
     @PostMapping("/product/products")
     CommonResDto<List<ProductResDto>> getProducts(@RequestBody List<Long> productIds);
 
     @PutMapping("/product/cancel")
     ResponseEntity<?> cancelProduct(@RequestBody Map<Long, Integer> map);
+
+    // 주문 상세 전체의 재고 확인 + 차감을 한 번의 요청으로 처리
+    @PostMapping("/product/reserve")
+    CommonResDto<List<ProductReserveResDto>> reserveProducts(@RequestBody List<OrderingSaveReqDto> dtoList);
 }
\ No newline at end of file
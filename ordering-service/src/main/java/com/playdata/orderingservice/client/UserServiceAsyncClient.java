@@ -0,0 +1,31 @@
+package com.playdata.orderingservice.client;
+
+import com.playdata.orderingservice.ordering.dto.UserResDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.concurrent.CompletableFuture;
+
+// UserServiceClient(Feign)의 비동기 버전. 응답을 기다리는 동안 스레드를 점유하지 않는다.
+// 서킷 브레이커/타임리미터: userService
+@Component
+@RequiredArgsConstructor
+public class UserServiceAsyncClient {
+
+    private final AsyncHttpSupport asyncHttpSupport;
+
+    @Value("${ordering.clients.user.url:http://user-service.default.svc.cluster.local:8081}")
+    private String baseUrl;
+
+    public CompletableFuture<UserResDto> findByEmail(String email) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .path("/user/findByEmail")
+                .queryParam("email", email)
+                .encode()
+                .toUriString();
+        return asyncHttpSupport.get("userService", url, UserResDto.class);
+    }
+
+}
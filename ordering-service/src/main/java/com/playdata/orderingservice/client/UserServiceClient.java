@@ -6,7 +6,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "user-service", url = "http://user-service.default.svc.cluster.local:8081") // 호출하고자 하는 서비스 이름 (유레카에 등록된)
+@FeignClient(name = "user-service", url = "${ordering.clients.user.url:http://user-service.default.svc.cluster.local:8081}") // 호출하고자 하는 서비스 이름 (유레카에 등록된)
 public interface UserServiceClient {
 
     // 요청 방식, 요청 url, 전달하고자 하는 데이터, 응답받고자 하는 데이터의 형태를
@@ -10,5 +10,7 @@ public class TokenUserInfo {
 
     private String email;
     private Role role;
+    private Long userId; // 토큰에 userId 클레임이 없던 시절에 발급된 토큰이면 null
+
 
 }
@@ -0,0 +1,45 @@
+package com.playdata.orderingservice.common.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/*
+vthreads 프로필(spring.threads.virtual.enabled=true)에서는 아래 풀도 가상 스레드로 작업을 실행한다.
+풀 크기는 스레드 비용 때문이 아니라 다른 서비스로 나가는 동시 요청 수를 제한하려고 둔 값이라서
+가상 스레드 모드에서도 그대로 유지.
+ */
+@Configuration
+public class AsyncConfig {
+
+    // 보류 주문 재처리용 워커 풀. 복구 직후 한꺼번에 몰려들지 않도록 동시 재처리 수를 제한.
+    @Bean
+    public ThreadPoolTaskExecutor orderRetryExecutor(
+            @Value("${ordering.retry.worker-count:4}") int workerCount,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerCount);
+        executor.setMaxPoolSize(workerCount);
+        executor.setQueueCapacity(Integer.MAX_VALUE); // 한 페이지 분량만 제출하므로 큐는 페이지 크기를 넘지 않음
+        executor.setThreadNamePrefix("order-retry-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    // 관리자 SSE 전송용. RabbitMQ 리스너 스레드 대신 여기서 각 연결의 대기열을 비운다.
+    // 연결마다 전송 작업은 최대 하나씩만 올라가므로 작업마다 가상 스레드 하나 = 연결마다 전송 스레드 하나.
+    // (고정 크기 풀이면 소켓이 막힌 연결 몇 개가 스레드를 전부 붙잡아서 다른 관리자 전송까지 멈춘다)
+    // 이 실행기는 프로필과 상관없이 항상 가상 스레드.
+    @Bean
+    public SimpleAsyncTaskExecutor sseSendExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("sse-send-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.playdata.orderingservice.common.configs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+Feign 클라이언트가 사용할 HTTP 커넥션 풀 (Apache HttpClient 5)
+
+기본 클라이언트(HttpURLConnection)는 풀 크기를 조절할 수도, 상태를 볼 수도 없어서
+주문이 몰리면 product-service 쪽으로 커넥션을 계속 새로 열고 닫게 된다. (TIME_WAIT 누적)
+- 대상 서비스(route)마다 최대 커넥션 수를 따로 지정
+- 오래 놀고 있는 커넥션, 수명이 다한 커넥션은 백그라운드에서 정리
+- 대상별 풀 상태(leased/pending/available/max)를 /actuator/metrics 로 노출
+
+feign-hc5가 classpath에 있으면 spring cloud openfeign이 CloseableHttpClient 빈을 Feign에 연결해 준다.
+(여기서 빈을 직접 만들면 기본 설정 대신 이 빈들이 사용됨)
+ */
+@Configuration
+public class FeignHttpClientConfig {
+
+    @Value("${ordering.clients.product.url:http://product-service.default.svc.cluster.local:8082}")
+    private String productUrl;
+
+    @Value("${ordering.clients.user.url:http://user-service.default.svc.cluster.local:8081}")
+    private String userUrl;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager feignConnectionManager(
+            @Value("${ordering.clients.pool.max-total:200}") int maxTotal,
+            @Value("${ordering.clients.pool.default-max-per-route:20}") int defaultMaxPerRoute,
+            @Value("${ordering.clients.pool.time-to-live-seconds:300}") long timeToLiveSeconds,
+            @Value("${ordering.clients.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${ordering.clients.product.max-connections:100}") int productMaxConnections,
+            @Value("${ordering.clients.user.max-connections:50}") int userMaxConnections
+    ) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(defaultMaxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        // 커넥션 최대 수명 (k8s에서 대상 파드가 바뀌어도 언젠가는 새 커넥션으로 갈아타도록)
+                        .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                        // 잠깐 놀던 커넥션은 꺼내기 전에 살아있는지 확인
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        // 주문 경로에서 가장 많이 호출하는 product-service에 커넥션을 더 많이 배정
+        connectionManager.setMaxPerRoute(route(productUrl), productMaxConnections);
+        connectionManager.setMaxPerRoute(route(userUrl), userMaxConnections);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient(
+            PoolingHttpClientConnectionManager feignConnectionManager,
+            @Value("${ordering.clients.pool.idle-evict-seconds:30}") long idleEvictSeconds
+    ) {
+        return HttpClients.custom()
+                .setConnectionManager(feignConnectionManager)
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .evictExpiredConnections()
+                .disableCookieManagement()
+                // 재시도 여부는 서킷 브레이커 쪽에서 판단 (여기서 몰래 재전송하면 재고 차감이 두 번 될 수 있음)
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    // feign.pool.leased / pending / available / max {target=product-service|user-service|all}
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(PoolingHttpClientConnectionManager feignConnectionManager) {
+        Map<String, HttpRoute> routes = Map.of(
+                "product-service", route(productUrl),
+                "user-service", route(userUrl)
+        );
+
+        return registry -> {
+            routes.forEach((target, route) -> registerPoolGauges(
+                    registry, target, () -> feignConnectionManager.getStats(route)));
+            registerPoolGauges(registry, "all", feignConnectionManager::getTotalStats);
+        };
+    }
+
+    private void registerPoolGauges(MeterRegistry registry, String target, Supplier<PoolStats> stats) {
+        Map<String, Function<PoolStats, Integer>> values = Map.of(
+                "leased", PoolStats::getLeased,
+                "pending", PoolStats::getPending,
+                "available", PoolStats::getAvailable,
+                "max", PoolStats::getMax
+        );
+        values.forEach((name, value) -> Gauge.builder("feign.pool." + name, () -> value.apply(stats.get()))
+                .tag("target", target)
+                .description("Feign HTTP 커넥션 풀 상태")
+                .register(registry));
+    }
+
+    private static HttpRoute route(String url) {
+        return new HttpRoute(HttpHost.create(URI.create(url)));
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.playdata.orderingservice.common.configs;
+
+import com.playdata.orderingservice.common.hedging.HedgingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HedgingConfig {
+
+    // product-service 상품 조회(findById, getProducts)용 헤징
+    // ordering.hedge.sent / won / delay {name=product-service}
+    @Bean
+    public HedgingExecutor productServiceHedger(
+            MeterRegistry meterRegistry,
+            @Value("${ordering.product.hedging.enabled:false}") boolean enabled,
+            @Value("${ordering.product.hedging.percentile:95}") double percentile,
+            @Value("${ordering.product.hedging.min-delay-ms:20}") long minDelayMs,
+            @Value("${ordering.product.hedging.budget-percent:5}") double budgetPercent,
+            @Value("${ordering.product.hedging.window-size:1000}") int windowSize
+    ) {
+        return new HedgingExecutor("product-service", enabled, percentile, minDelayMs,
+                budgetPercent, windowSize, meterRegistry);
+    }
+
+}
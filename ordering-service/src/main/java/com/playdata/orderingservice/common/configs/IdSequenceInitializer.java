@@ -0,0 +1,110 @@
+package com.playdata.orderingservice.common.configs;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+주문/주문 상세/아웃박스 id를 IDENTITY(auto_increment)에서 시퀀스로 바꾸면서 필요한 보정 작업.
+
+MySQL에는 시퀀스가 없어서 하이버네이트가 ordering_seq, order_detail_seq, order_outbox_seq 테이블을 만들어 흉내 내는데,
+새로 만들어진 시퀀스 테이블은 1부터 시작한다. 이미 주문 데이터가 있는 DB라면 기존 id와 겹치게 됨.
+시퀀스 값을 "현재 최대 id + 할당 크기" 이상으로 끌어올린다.
+
+- EntityManagerFactory가 이 빈에 의존하도록 등록해서, 하이버네이트가 id 블록을 받아 가기 전에 끝난다.
+  (톰캣, 래빗 리스너, @Scheduled 어느 것도 아직 시작 전)
+- 시퀀스 테이블이 없으면(처음 배포) 직접 만들고 보정된 값으로 한 행을 넣는다. ddl-auto update는 있는 테이블을 그대로 둔다.
+- 여러 인스턴스가 동시에 떠도 행이 두 개 생기지 않도록 GET_LOCK으로 한 인스턴스씩. 값은 GREATEST로 올리기만 하니 여러 번 실행해도 안전.
+- 실제 시퀀스가 있는 DB(H2 등 테스트)에서는 하이버네이트가 진짜 시퀀스를 쓰므로 아무것도 하지 않는다.
+
+주의: IDENTITY를 쓰던 이전 버전과 섞어서 띄우는 배포(롤링 업데이트)는 지원하지 않는다.
+이전 버전은 auto_increment 카운터로 id를 만들고, 새 버전은 시퀀스에서 50개씩 미리 받아 둔 블록으로 만든다.
+둘이 같은 테이블에 동시에 INSERT하면 auto_increment가 새 버전이 받아 둔 블록 안으로 들어와 id가 겹칠 수 있다.
+-> 이전 버전 인스턴스를 전부 내린 뒤에 새 버전을 올릴 것 (Recreate 배포 또는 점검 시간에 한 번에 교체)
+ */
+@Component("idSequenceInitializer")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer implements InitializingBean {
+
+    // 엔터티의 @SequenceGenerator allocationSize와 맞춰야 함
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String LOCK_NAME = "ordering_id_sequence_init";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        // 락과 보정 쿼리가 같은 세션에서 실행되어야 하므로 커넥션 하나를 잡고 진행
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!isMySql(connection)) {
+                return null;
+            }
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Integer locked = session.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class,
+                    LOCK_NAME, LOCK_TIMEOUT_SECONDS);
+            if (locked == null || locked != 1) {
+                // 다른 인스턴스가 너무 오래 잡고 있음 -> 여기서 기동을 멈추는 편이 id 충돌보다 낫다.
+                throw new IllegalStateException("시퀀스 보정 락을 얻지 못했습니다: " + LOCK_NAME);
+            }
+            try {
+                alignSequence(session, "ordering_seq", "ordering");
+                alignSequence(session, "order_detail_seq", "order_detail");
+                alignSequence(session, "order_outbox_seq", "order_outbox");
+            } finally {
+                session.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+            }
+            return null;
+        });
+    }
+
+    private void alignSequence(JdbcTemplate session, String sequenceTable, String entityTable) {
+        long floor = maxId(session, entityTable) + ALLOCATION_SIZE + 1;
+
+        session.execute("CREATE TABLE IF NOT EXISTS " + sequenceTable + " (next_val bigint)");
+        Long rows = session.queryForObject("SELECT COUNT(*) FROM " + sequenceTable, Long.class);
+        if (rows == null || rows == 0) {
+            session.update("INSERT INTO " + sequenceTable + " (next_val) VALUES (?)", floor);
+            log.info("{} 시퀀스 생성: next_val={}", sequenceTable, floor);
+            return;
+        }
+        int updated = session.update(
+                "UPDATE " + sequenceTable + " SET next_val = GREATEST(next_val, ?)", floor);
+        log.info("{} 시퀀스 보정 완료 ({}행, 최소 {})", sequenceTable, updated, floor);
+    }
+
+    // 엔터티 테이블이 아직 없으면(처음 배포) 0
+    private long maxId(JdbcTemplate session, String entityTable) {
+        Integer tables = session.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables " +
+                        "WHERE table_schema = DATABASE() AND table_name = ?", Integer.class, entityTable);
+        if (tables == null || tables == 0) {
+            return 0;
+        }
+        Long max = session.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + entityTable, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private boolean isMySql(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        return product.contains("MySQL") || product.contains("MariaDB");
+    }
+
+    // EntityManagerFactory가 뜨기 전에 위 보정이 끝나도록 (Flyway/Liquibase가 쓰는 것과 같은 방식)
+    @Component
+    static class EntityManagerFactoryDependsOnIdSequence extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnIdSequence() {
+            super("idSequenceInitializer");
+        }
+    }
+
+}
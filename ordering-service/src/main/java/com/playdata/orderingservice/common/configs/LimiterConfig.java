@@ -0,0 +1,43 @@
+package com.playdata.orderingservice.common.configs;
+
+import com.playdata.orderingservice.common.limiter.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LimiterConfig {
+
+    // product-service로 나가는 모든 호출(조회, 예약, 차감)이 함께 쓰는 적응형 동시 호출 제한
+    // ordering.limiter.limit / inflight / dropped {name=product-service}
+    @Bean
+    public AdaptiveConcurrencyLimiter productServiceLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${ordering.product.limiter.initial-limit:20}") int initialLimit,
+            @Value("${ordering.product.limiter.min-limit:2}") int minLimit,
+            @Value("${ordering.product.limiter.max-limit:50}") int maxLimit,
+            @Value("${ordering.product.limiter.rtt-tolerance:1.5}") double rttTolerance
+    ) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                "product-service", initialLimit, minLimit, maxLimit, rttTolerance);
+
+        Gauge.builder("ordering.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("name", "product-service")
+                .description("현재 동시 호출 한도")
+                .register(meterRegistry);
+        Gauge.builder("ordering.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("name", "product-service")
+                .description("진행 중인 호출 수")
+                .register(meterRegistry);
+        FunctionCounter.builder("ordering.limiter.dropped", limiter, AdaptiveConcurrencyLimiter::getDropped)
+                .tag("name", "product-service")
+                .description("한도 초과로 바로 거절한 호출 수")
+                .register(meterRegistry);
+
+        return limiter;
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.playdata.orderingservice.common.configs;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/*
+ordering.order_status 컬럼을 MySQL 네이티브 enum에서 varchar(32)로 바꾸는 보정 작업.
+
+예전 엔터티(@Enumerated(STRING)만 있던 때)로 만들어진 DB는 order_status가 enum('ORDERED', 'PENDING_...', 'CANCELED')이다.
+ACCEPTED, REJECTED 같은 새 상태를 저장하면 "Data truncated for column 'order_status'"로 실패하는데,
+ddl-auto update는 이미 있는 컬럼의 타입을 바꾸지 않는다.
+
+- 엔터티는 이제 varchar(32)로 매핑 (Ordering.orderStatus) -> 새로 만드는 DB는 처음부터 문자열 컬럼
+- 이미 enum인 컬럼만 ALTER TABLE로 변경. 값은 그대로 문자열로 옮겨지고, NOT NULL 여부도 유지한다.
+- 이미 varchar라면 아무것도 하지 않으므로 여러 인스턴스가 동시에 떠도 안전 (ALTER가 두 번 실행돼도 결과는 같음)
+- EntityManagerFactory보다 먼저 실행 (IdSequenceInitializer와 같은 방식)
+ */
+@Component("orderStatusColumnInitializer")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusColumnInitializer implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!isMySql(connection)) {
+                return null;
+            }
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            List<Map<String, Object>> columns = session.queryForList(
+                    "SELECT data_type, is_nullable FROM information_schema.columns " +
+                            "WHERE table_schema = DATABASE() AND table_name = 'ordering' AND column_name = 'order_status'");
+            // 테이블이 아직 없으면(처음 배포) 하이버네이트가 varchar로 만든다.
+            if (columns.isEmpty() || !"enum".equalsIgnoreCase(String.valueOf(columns.get(0).get("data_type")))) {
+                return null;
+            }
+            boolean nullable = "YES".equalsIgnoreCase(String.valueOf(columns.get(0).get("is_nullable")));
+            session.execute("ALTER TABLE ordering MODIFY order_status varchar(32)" + (nullable ? " NULL" : " NOT NULL"));
+            log.info("ordering.order_status 컬럼을 enum에서 varchar(32)로 변경");
+            return null;
+        });
+    }
+
+    private boolean isMySql(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        return product.contains("MySQL") || product.contains("MariaDB");
+    }
+
+    @Component
+    static class EntityManagerFactoryDependsOnOrderStatusColumn extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnOrderStatusColumn() {
+            super("orderStatusColumnInitializer");
+        }
+    }
+
+}
@@ -5,6 +5,8 @@ import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFacto
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -33,44 +35,78 @@ public class RabbitMQConfig {
     /**
      * Queue = 사서함 역할
      * 관리자에게 보낼 알림 메시지들이 쌓이는 곳
-     * durable = 서버 재시작해도 큐가 사라지지 않음
      *
-     * admin = 관리자용
-     * order = 주문 관련
-     * notifications = 알림용
-     * → "관리자 주문 알림 큐"라는 의미
+     * 예전에는 모든 인스턴스가 durable 큐(admin.order.notifications) 하나를 같이 구독했다.
+     * 같은 큐를 여러 소비자가 구독하면 메시지는 그중 한 인스턴스에게만 전달된다! (경쟁 소비자)
+     * -> 다른 인스턴스에 연결된 관리자는 알림을 못 받거나, 받은 인스턴스에 관리자가 없으면 대기 큐로 잘못 들어감.
      *
-     * Time To Live = 메시지 유효기간
-     * 1시간(3600초) 후에도 처리 안 되면 메시지 삭제
-     * 관리자가 1시간 동안 접속 안 하면 오래된 알림은 의미 없으니까!
+     * 그래서 상품 캐시 큐처럼 인스턴스마다 임시 큐(AnonymousQueue)를 만들어서
+     * 모든 인스턴스가 같은 알림을 한 부씩 받도록 한다. (연결이 끊기면 자동 삭제)
+     * 관리자 한 명에게 한 번만 보내기 / 대기 큐에 한 번만 넣기는 AdminPresenceService(Redis)가 조정.
      */
     @Bean
-    public Queue orderQueue() {
-        return QueueBuilder.durable("admin.order.notifications")
-                .withArgument("x-message-ttl", 3600000)
-                .build();
-    }
-
-    // 대기 알림용 큐 (알림 전송 대상 관리자가 없을 시 메시지 누적)
-    @Bean
-    public Queue pendingNotificationQueue() {
-        return QueueBuilder.durable("admin.pending.notifications")
-                .withArgument("x-message-ttl", 86400000) // 24시간
-                .build();
+    public Queue adminNotificationQueue() {
+        return new AnonymousQueue();
     }
 
     /**
      * Exchange와 Queue를 연결하는 규칙
-     * "order.created" 패턴의 메시지가 오면 → admin.order.notifications 큐로 보내라!
+     * "order.created" 패턴의 메시지가 오면 → 이 인스턴스의 알림 큐로 보내라!
      */
     @Bean
     public Binding adminNotificationBinding() {
         return BindingBuilder
-                .bind(orderQueue())
+                .bind(adminNotificationQueue())
                 .to(orderExchange())
                 .with("order.created");
     }
 
+    /*
+    비동기 주문 접수 사가 경로 (OrderIntakeSaga)
+    [주문 접수] → [order.exchange] → [order.saga.queue] → [OrderIntakeSaga]
+
+    알림과 달리 주문 하나는 어느 인스턴스든 한 곳에서만 처리하면 되므로
+    모든 인스턴스가 같은 durable 큐를 나눠서 소비한다. (경쟁 소비자, 재시작해도 메시지 유지)
+     */
+    @Bean
+    public Queue orderSagaQueue() {
+        return new Queue("order.saga.queue", true);
+    }
+
+    @Bean
+    public Binding orderSagaBinding() {
+        return BindingBuilder
+                .bind(orderSagaQueue())
+                .to(orderExchange())
+                .with("order.saga.#");
+    }
+
+    /*
+    상품 변경 알림 수신 경로 (상품 캐시 무효화용)
+    [product-service] → [product.exchange] → [인스턴스별 임시 큐] → [ProductInfoCache]
+
+    캐시는 인스턴스마다 따로 있으니, 모든 인스턴스가 같은 메시지를 받아야 한다.
+    그래서 공유 큐가 아니라 인스턴스마다 이름 없는 임시 큐(AnonymousQueue)를 만든다.
+    (연결이 끊기면 자동 삭제, 재시작하면 새로 생성)
+     */
+    @Bean
+    public TopicExchange productExchange() {
+        return new TopicExchange("product.exchange");
+    }
+
+    @Bean
+    public Queue productCacheQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding productCacheBinding() {
+        return BindingBuilder
+                .bind(productCacheQueue())
+                .to(productExchange())
+                .with("product.#");
+    }
+
     /**
      * 우리가 보낼 객체 (OrderNotificationEvent -> DTO)를 JSON으로 변환
      * 받을 때도 JSON을 다시 객체로 변환
@@ -82,32 +118,61 @@ public class RabbitMQConfig {
 
     // RabbitTemplate 설정
     // 역할: 메시지 발송자 (Producer) - "편지를 우체통에 넣는 도구"
+    // mandatory: 받을 큐가 없는 메시지를 조용히 버리지 말고 되돌려 달라고 요청 (OrderOutboxRelay가 재발송)
+    // (spring.rabbitmq.publisher-returns=true, publisher-confirm-type=correlated와 함께 사용)
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 
     // Listener 설정
     // 역할: 메시지 수신자 (Consumer) - "사서함에서 편지를 자동으로 꺼내주는 도구"
+    // 스프링 부트의 configurer로 spring.rabbitmq.listener.simple.* 설정을 먼저 적용한다.
+    // (vthreads 프로필이면 configurer가 리스너를 가상 스레드에서 실행하도록 설정해 줌)
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
             ConnectionFactory connectionFactory) {
         SimpleRabbitListenerContainerFactory factory
                 = new SimpleRabbitListenerContainerFactory();
-        factory.setConnectionFactory(connectionFactory);
+        configurer.configure(factory, connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
         return factory;
     }
 
+    /*
+    관리자 주문 알림 전용 리스너 설정 (SseController)
+    알림 하나하나는 작은데, 기본 설정(메시지마다 리스너 호출 + SSE 전송)으로는 주문이 몰릴 때 큐가 밀린다.
+    - prefetch: 브로커가 ack를 기다리지 않고 미리 보내줄 메시지 수
+    - batch-size: 리스너가 한 번에 받을 최대 메시지 수 (receive-timeout 동안 더 오지 않으면 모인 만큼만)
+      -> 관리자마다 한 번의 쓰기로 묶어서 전송, ack도 묶음 단위로 한 번
+    - concurrency: 소비자 수. 알림 순서는 알림 기록(Redis 스트림)에서 정해지지만,
+      1보다 크면 소비자들이 읽은 묶음을 동시에 보내면서 관리자 화면에 도착하는 순서가 섞일 수 있다 -> 기본 1 권장
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory notificationListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${ordering.notification.listener.concurrency:1}") int concurrency,
+            @Value("${ordering.notification.listener.max-concurrency:1}") int maxConcurrency,
+            @Value("${ordering.notification.listener.prefetch:250}") int prefetch,
+            @Value("${ordering.notification.listener.batch-size:50}") int batchSize,
+            @Value("${ordering.notification.listener.receive-timeout-ms:100}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory
+                = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setPrefetchCount(Math.max(prefetch, batchSize)); // 한 묶음을 채울 수 있을 만큼은 받아와야 함
+        factory.setBatchListener(true); // 리스너가 List로 받음
+        factory.setConsumerBatchEnabled(true); // 소비자가 메시지를 batch-size만큼 모아서 전달
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        return factory;
+    }
 
 }
-
-
-
-
-
-
-
-
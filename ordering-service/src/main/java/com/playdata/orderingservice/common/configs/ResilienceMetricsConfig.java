@@ -0,0 +1,44 @@
+package com.playdata.orderingservice.common.configs;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class ResilienceMetricsConfig {
+
+    // 다른 서비스 호출에 사용하는 resilience4j 인스턴스 이름 (yml의 resilience4j.*.instances)
+    private static final List<String> DOWNSTREAMS
+            = List.of("userService", "productService", "productServiceUpdate");
+
+    // 벌크헤드 상태를 /actuator/metrics 로 노출
+    // ordering.bulkhead.rejected{name}: 자리가 없어서 거절된 호출 수 (느려진 서비스가 있다는 신호)
+    // ordering.bulkhead.available{name}: 지금 남아 있는 동시 호출 자리 수
+    @Bean
+    public MeterBinder bulkheadMetrics(BulkheadRegistry bulkheadRegistry) {
+        return registry -> {
+            for (String name : DOWNSTREAMS) {
+                Bulkhead bulkhead = bulkheadRegistry.bulkhead(name);
+
+                Counter rejected = Counter.builder("ordering.bulkhead.rejected")
+                        .tag("name", name)
+                        .description("벌크헤드가 가득 차서 거절된 호출 수")
+                        .register(registry);
+                bulkhead.getEventPublisher().onCallRejected(event -> rejected.increment());
+
+                Gauge.builder("ordering.bulkhead.available", bulkhead,
+                                b -> b.getMetrics().getAvailableConcurrentCalls())
+                        .tag("name", name)
+                        .description("남아 있는 동시 호출 자리 수")
+                        .register(registry);
+            }
+        };
+    }
+
+}
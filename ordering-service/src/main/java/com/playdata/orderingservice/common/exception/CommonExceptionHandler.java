@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 @RestControllerAdvice
 public class CommonExceptionHandler {
@@ -24,6 +25,19 @@ public class CommonExceptionHandler {
         return new ResponseEntity<>(errorDto, HttpStatus.BAD_REQUEST);
     }
 
+    // 요청 값 검증(@Valid, @NotEmpty 등)에 실패했을 때 호출되는 메서드
+    // 검증하지 않으면 아래의 Exception 처리로 넘어가서 500이 나가므로 따로 잡는다.
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<?> validationHandler(HandlerMethodValidationException e) {
+        String message = e.getAllErrors().stream()
+                .map(error -> error.getDefaultMessage())
+                .findFirst()
+                .orElse("잘못된 요청입니다.");
+        CommonErrorDto errorDto
+                = new CommonErrorDto(HttpStatus.BAD_REQUEST, message);
+        return new ResponseEntity<>(errorDto, HttpStatus.BAD_REQUEST);
+    }
+
     // 엔터티를 찾지 못했을 때 예외가 발생할 것이고, 이 메서드가 호출될 것이다.
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<?> entityNotFountHandler(EntityNotFoundException e) {
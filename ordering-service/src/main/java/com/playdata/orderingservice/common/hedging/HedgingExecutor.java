@@ -0,0 +1,162 @@
+package com.playdata.orderingservice.common.hedging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/*
+헤징(hedging) 요청 실행기 - 같은 결과를 돌려주는(멱등) 조회 요청 전용!
+
+인스턴스 하나가 느려지거나 GC로 잠깐 멈추면 그 인스턴스로 간 요청은 그대로 주문 응답 시간의 꼬리(p99)가 된다.
+- 첫 요청이 최근 응답 시간의 p95(설정값) 안에 오지 않으면 같은 요청을 한 번 더 보낸다.
+- 둘 중 먼저 성공한 응답을 사용하고, 늦은 쪽 응답은 버린다.
+- 헤지 요청 수는 전체 요청의 일정 비율(budget-percent)을 넘지 않는다.
+  (상대 서비스 전체가 느려진 상황에서 요청을 두 배로 보내면 오히려 장애를 키우니까)
+
+재고 차감/예약처럼 두 번 실행되면 안 되는 요청에는 절대 사용하면 안 됨.
+ */
+@Slf4j
+public class HedgingExecutor {
+
+    private final String name;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minSamples;
+
+    // 헤지 예산 (토큰 버킷): 요청 1건마다 budgetPercent/100 토큰이 쌓이고, 헤지 1건에 1토큰을 쓴다.
+    private final double tokensPerRequest;
+    private final double maxTokens;
+    private double tokens;
+
+    // 최근 응답 시간 (링 버퍼). 일정 건수마다 백분위 값을 다시 계산해서 헤지 대기 시간으로 사용.
+    private static final int RECOMPUTE_EVERY = 50;
+    private final long[] latencies;
+    private long latencyCount;
+    private int latencyIndex;
+    private volatile long hedgeDelayNanos = -1; // 샘플이 충분히 모이기 전에는 헤지하지 않음
+
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public HedgingExecutor(String name, boolean enabled, double percentile, long minDelayMs,
+                           double budgetPercent, int windowSize, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.minSamples = Math.min(windowSize, 100);
+        this.tokensPerRequest = budgetPercent / 100;
+        this.maxTokens = 10; // 한가할 때 예산이 무한히 쌓였다가 한꺼번에 헤지가 몰리지 않도록
+        this.latencies = new long[windowSize];
+
+        this.hedgesSent = Counter.builder("ordering.hedge.sent")
+                .tag("name", name)
+                .description("보낸 헤지 요청 수")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("ordering.hedge.won")
+                .tag("name", name)
+                .description("헤지 요청이 첫 요청보다 먼저 응답한 횟수")
+                .register(meterRegistry);
+        Gauge.builder("ordering.hedge.delay", this, executor -> executor.hedgeDelayNanos / 1_000_000.0)
+                .tag("name", name)
+                .description("현재 헤지 대기 시간(ms), 샘플이 부족하면 -1")
+                .register(meterRegistry);
+    }
+
+    // attempt: 요청을 한 번 보내는 함수 (헤지할 때 한 번 더 호출됨)
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> attempt) {
+        if (!enabled) {
+            return attempt.get();
+        }
+        addBudget();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // 아직 결과를 기다리는 요청 수. 모든 요청이 실패했을 때만 실패로 끝낸다.
+        AtomicInteger remaining = new AtomicInteger(1);
+
+        launch(attempt, result, remaining, false);
+
+        long delay = hedgeDelayNanos;
+        if (delay >= 0) {
+            CompletableFuture.delayedExecutor(Math.max(delay, minDelayNanos), TimeUnit.NANOSECONDS)
+                    .execute(() -> {
+                        // 첫 요청이 이미 끝났거나(성공/실패 모두) 예산이 없으면 헤지하지 않음
+                        // 실패한 요청을 다시 보내는 건 헤지가 아니라 재시도 -> 보류 주문 재처리에 맡긴다.
+                        if (result.isDone() || !tryAcquireBudget()) {
+                            return;
+                        }
+                        remaining.incrementAndGet();
+                        hedgesSent.increment();
+                        launch(attempt, result, remaining, true);
+                    });
+        }
+        return result;
+    }
+
+    private <T> void launch(Supplier<CompletableFuture<T>> attempt, CompletableFuture<T> result,
+                            AtomicInteger remaining, boolean hedge) {
+        long start = System.nanoTime();
+        BiConsumer<T, Throwable> onComplete = (value, error) -> {
+            if (error == null) {
+                // 진 쪽 응답도 응답 시간 샘플로는 사용
+                recordLatency(System.nanoTime() - start);
+                if (result.complete(value) && hedge) {
+                    hedgesWon.increment();
+                }
+            } else if (remaining.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        };
+
+        try {
+            attempt.get().whenComplete(onComplete);
+        } catch (RuntimeException e) {
+            onComplete.accept(null, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private synchronized void addBudget() {
+        tokens = Math.min(maxTokens, tokens + tokensPerRequest);
+    }
+
+    private synchronized boolean tryAcquireBudget() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private void recordLatency(long nanos) {
+        long[] snapshot = null;
+        synchronized (this) {
+            latencies[latencyIndex] = nanos;
+            latencyIndex = (latencyIndex + 1) % latencies.length;
+            latencyCount++;
+            if (latencyCount >= minSamples && latencyCount % RECOMPUTE_EVERY == 0) {
+                snapshot = Arrays.copyOf(latencies, Math.min(latencyCount, latencies.length));
+            }
+        }
+        // 정렬은 락 밖에서
+        if (snapshot != null) {
+            Arrays.sort(snapshot);
+            int index = (int) Math.ceil(percentile / 100 * snapshot.length) - 1;
+            hedgeDelayNanos = snapshot[Math.max(0, Math.min(index, snapshot.length - 1))];
+            log.debug("{} 헤지 대기 시간 갱신: {}ms", name, hedgeDelayNanos / 1_000_000);
+        }
+    }
+
+}
@@ -0,0 +1,318 @@
+package com.playdata.orderingservice.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playdata.orderingservice.common.dto.CommonErrorDto;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+주문 생성 요청(POST /order/create)의 중복 실행을 막는 필터.
+클라이언트가 Idempotency-Key 헤더를 보내면, 같은 키로 들어온 재시도 요청은
+주문 로직을 다시 실행하지 않고 첫 요청의 응답을 그대로 돌려줍니다.
+(게이트웨이 타임아웃 후 재시도 -> 주문 중복 생성, 재고 이중 차감 방지)
+
+- 첫 요청: Redis에 "처리 중" 표시 (SETNX) -> 주문 처리 -> 응답을 Redis에 저장 (TTL)
+  처리 중 표시는 주문 처리가 끝날 때까지 주기적으로 수명을 연장한다. (처리가 in-flight-ttl보다 오래 걸려도 중복 실행 안 됨)
+- 처리 중에 들어온 같은 키: 첫 요청이 끝날 때까지 기다렸다가 저장된 응답 반환
+- 첫 요청이 서버 오류(5xx)로 끝나면 키를 지워서 재시도가 다시 실행될 수 있게 한다.
+- 키와 함께 요청 본문의 해시(SHA-256)도 저장한다. 같은 키인데 본문이 다르면 (클라이언트가 키를 재사용한 실수)
+  첫 주문의 응답을 돌려주지 않고 422로 거절.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    private static final String KEY_PREFIX = "idempotency:order-create:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ordering.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // 처리 중 표시의 수명: 첫 요청을 처리하던 인스턴스가 죽어도 키가 영원히 잠기지 않도록
+    // 처리하는 동안에는 이 시간의 1/3마다 연장 -> 인스턴스가 살아 있는 한 주문 처리 시간과 상관없이 유지된다.
+    @Value("${ordering.idempotency.in-flight-ttl-seconds:60}")
+    private long inFlightTtlSeconds;
+
+    @Value("${ordering.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${ordering.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    // 처리 중 표시 연장용 (Redis EXPIRE만 보내므로 스레드 하나면 충분)
+    private final ScheduledExecutorService inFlightRenewer
+            = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "idempotency-in-flight-renewer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod())
+                || !"/order/create".equals(request.getServletPath())
+                || request.getHeader(IDEMPOTENCY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+
+        // 다른 사용자가 우연히 같은 키를 써도 섞이지 않도록 사용자 이메일까지 키에 포함.
+        String redisKey = KEY_PREFIX + request.getHeader("X-User-Email")
+                + ":" + request.getHeader(IDEMPOTENCY_HEADER);
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+
+        // 본문은 해시 계산에 한 번 읽으므로, 컨트롤러가 다시 읽을 수 있게 감싸 둔다.
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String requestHash = sha256(cachedRequest.getBody());
+
+        while (true) {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(
+                    redisKey, IdempotentResponse.inProgress(requestHash), Duration.ofSeconds(inFlightTtlSeconds));
+
+            if (Boolean.TRUE.equals(acquired)) {
+                // 이 키로 들어온 첫 요청 -> 실제로 주문 처리
+                executeAndStore(redisKey, requestHash, cachedRequest, response, filterChain);
+                return;
+            }
+
+            Object stored = redisTemplate.opsForValue().get(redisKey);
+            // 해시가 없는 기록은 이 검사가 생기기 전에 저장된 것 -> 비교하지 않음
+            if (stored instanceof IdempotentResponse saved
+                    && saved.getRequestHash() != null && !saved.getRequestHash().equals(requestHash)) {
+                log.warn("Idempotency-Key 재사용 - 요청 본문이 다름: {}", redisKey);
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "같은 Idempotency-Key로 다른 주문 내용이 요청되었습니다.");
+                return;
+            }
+            if (stored instanceof IdempotentResponse saved && saved.isCompleted()) {
+                log.info("Idempotency-Key 재요청 - 저장된 응답 반환: {}", redisKey);
+                replay(saved, response);
+                return;
+            }
+            // stored == null: 첫 요청이 실패해서 키가 지워짐 -> 다음 반복에서 직접 처리 시도
+
+            if (System.currentTimeMillis() > deadline) {
+                writeError(response, HttpStatus.CONFLICT, "같은 Idempotency-Key의 요청이 아직 처리 중입니다.");
+                return;
+            }
+
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "요청 처리가 중단되었습니다.");
+                return;
+            }
+        }
+    }
+
+    private void executeAndStore(String redisKey, String requestHash, HttpServletRequest request,
+                                 HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // 응답 본문을 저장하기 위해 한 번 감싸서 내려보낸다.
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        InFlightRenewal renewal = renewWhileProcessing(redisKey);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            renewal.stop();
+            redisTemplate.delete(redisKey);
+            throw e;
+        }
+        // 연장을 먼저 멈춘다. -> 뒤늦은 연장이 저장된 응답의 TTL(ttl-hours)을 줄이지 못함
+        renewal.stop();
+
+        int status = responseWrapper.getStatus();
+        if (status >= 500) {
+            // 서버 쪽 문제 -> 재시도하면 처리될 수도 있으니 기록하지 않는다.
+            redisTemplate.delete(redisKey);
+        } else {
+            IdempotentResponse completed = IdempotentResponse.builder()
+                    .completed(true)
+                    .requestHash(requestHash)
+                    .status(status)
+                    .contentType(responseWrapper.getContentType())
+                    .body(new String(responseWrapper.getContentAsByteArray(), StandardCharsets.UTF_8))
+                    .build();
+            redisTemplate.opsForValue().set(redisKey, completed, Duration.ofHours(ttlHours));
+        }
+
+        // 감싸 두었던 응답 본문을 실제 응답으로 흘려보내기
+        responseWrapper.copyBodyToResponse();
+    }
+
+    private InFlightRenewal renewWhileProcessing(String redisKey) {
+        InFlightRenewal renewal = new InFlightRenewal(redisKey);
+        long periodMs = Math.max(1, TimeUnit.SECONDS.toMillis(inFlightTtlSeconds) / 3);
+        renewal.task = inFlightRenewer.scheduleAtFixedRate(renewal::renew, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        return renewal;
+    }
+
+    // 처리 중 표시 하나의 연장 작업. renew와 stop은 같은 락 -> stop이 끝난 뒤에는 연장이 실행되지 않는다.
+    private class InFlightRenewal {
+
+        private final String redisKey;
+        private ScheduledFuture<?> task;
+        private boolean stopped;
+
+        InFlightRenewal(String redisKey) {
+            this.redisKey = redisKey;
+        }
+
+        synchronized void renew() {
+            if (stopped) {
+                return;
+            }
+            try {
+                redisTemplate.expire(redisKey, Duration.ofSeconds(inFlightTtlSeconds));
+            } catch (Exception e) {
+                // 다음 주기에 다시 시도 (그 사이에 만료되면 같은 키의 재시도가 실행될 수 있다)
+                log.warn("처리 중 표시 연장 실패: {} - {}", redisKey, e.getMessage());
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            task.cancel(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        inFlightRenewer.shutdownNow();
+    }
+
+    private void replay(IdempotentResponse saved, HttpServletResponse response) throws IOException {
+        response.setStatus(saved.getStatus());
+        if (saved.getContentType() != null) {
+            response.setContentType(saved.getContentType());
+        }
+        response.setHeader("Idempotent-Replayed", "true");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (saved.getBody() != null) {
+            response.getWriter().write(saved.getBody());
+        }
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // 모든 JVM에 있는 알고리즘
+        }
+    }
+
+    // 요청 본문을 미리 다 읽어 두고, 뒤에서 getInputStream/getReader를 부르면 읽어 둔 내용을 다시 내준다.
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        @Getter
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                private ReadListener readListener;
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // 본문은 이미 메모리에 있다 -> 등록 즉시 "읽을 수 있음", 다 읽은 뒤 "끝"을 알려준다.
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    if (readListener == null) {
+                        throw new NullPointerException("readListener");
+                    }
+                    if (this.readListener != null) {
+                        throw new IllegalStateException("ReadListener가 이미 등록되어 있습니다.");
+                    }
+                    this.readListener = readListener;
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() == null
+                    ? StandardCharsets.UTF_8 : Charset.forName(getCharacterEncoding());
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus httpStatus, String message)
+            throws IOException {
+        response.setStatus(httpStatus.value());
+        response.setContentType("application/json; charset=UTF-8");
+        response.getWriter().write(
+                objectMapper.writeValueAsString(new CommonErrorDto(httpStatus, message)));
+    }
+
+}
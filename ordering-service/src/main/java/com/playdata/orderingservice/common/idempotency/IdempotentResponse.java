@@ -0,0 +1,22 @@
+package com.playdata.orderingservice.common.idempotency;
+
+import lombok.*;
+
+// Redis에 Idempotency-Key별로 저장하는 처리 상태 + 응답 내용
+@Getter @Setter @ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotentResponse {
+
+    private boolean completed; // false: 첫 요청이 아직 처리 중
+    private String requestHash; // 첫 요청 본문의 SHA-256 (같은 키에 다른 본문이 오면 거절)
+    private int status; // 첫 요청의 HTTP 상태 코드
+    private String contentType;
+    private String body; // 첫 요청의 응답 본문 (그대로 다시 돌려줌)
+
+    public static IdempotentResponse inProgress(String requestHash) {
+        return IdempotentResponse.builder().completed(false).requestHash(requestHash).build();
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.playdata.orderingservice.common.limiter;
+
+import feign.FeignException;
+import feign.RetryableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+응답 시간을 보고 스스로 조절되는 동시 호출 수 제한 (gradient 방식)
+
+고정된 재시도 횟수/동시 호출 수로는 상대 서비스가 느려졌을 때 오히려 요청을 더 쌓게 된다.
+- 평소 응답 시간(long RTT)과 최근 응답 시간(short RTT)을 비교해서
+  최근이 느려졌으면(= 상대 쪽에 줄이 생기고 있으면) 동시 호출 한도를 줄이고, 빨라졌으면 천천히 늘린다.
+- 한도를 넘는 호출은 기다리지 않고 바로 거절 (LimitExceededException)
+- 호출이 혼잡 때문에 실패(타임아웃, 5xx, I/O 오류)하면 한도를 곱하기로 크게 줄인다.
+  404 같은 4xx, 서킷 브레이커/bulkhead/이 limiter 자신의 거절은 상대 서비스가 막힌 신호가 아니므로 자리만 돌려준다.
+
+new limit = limit * gradient + sqrt(limit)
+  gradient = clamp(0.5 ~ 1.0, tolerance * longRtt / shortRtt)
+  sqrt(limit): 지연이 없어도 약간의 대기열을 허용해서 한도를 키워볼 여지를 남겨 둔다.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+
+    // 한도 변화를 부드럽게 (한 번에 확 바뀌지 않도록)
+    private static final double SMOOTHING = 0.2;
+    // 실패 시 한도 감소 비율
+    private static final double BACKOFF_RATIO = 0.9;
+    // long RTT는 최근 약 600건, short RTT는 최근 약 10건의 평균처럼 움직인다. (지수 이동 평균)
+    private static final double LONG_WINDOW = 600;
+    private static final double SHORT_WINDOW = 10;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+    }
+
+    // 동기 호출을 한도 안에서 실행. 한도를 넘으면 호출하지 않고 LimitExceededException.
+    public <T> T call(Supplier<T> supplier) {
+        acquire();
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return supplier.get();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            // Error가 나도 자리는 반드시 돌려준다.
+            release(System.nanoTime() - start, failure);
+        }
+    }
+
+    // 비동기 호출용. 응답이 올 때까지 자리를 차지하고, 완료되면 결과에 따라 한도를 조절.
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> supplier) {
+        try {
+            acquire();
+        } catch (LimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = supplier.get();
+        } catch (Throwable e) {
+            release(System.nanoTime() - start, e);
+            throw e;
+        }
+        return future.whenComplete((result, throwable) -> release(System.nanoTime() - start, throwable));
+    }
+
+    private void acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                dropped.incrementAndGet();
+                throw new LimitExceededException(name + " 동시 호출 한도 초과 (한도: " + (int) limit + ")");
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    // 자리를 돌려주고 결과에 따라 한도 조절 (성공 -> RTT 반영, 혼잡 실패 -> 감소, 그 외 실패 -> 그대로)
+    private void release(long rttNanos, Throwable failure) {
+        int inFlightBefore = inFlight.getAndDecrement(); // 이 호출까지 포함한 동시 호출 수
+        if (failure == null) {
+            onSuccess(rttNanos, inFlightBefore);
+        } else if (isCongestion(failure)) {
+            onCongestion();
+        }
+    }
+
+    private void onSuccess(long rttNanos, int inFlightBefore) {
+        synchronized (this) {
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+                shortRttNanos = rttNanos;
+                return;
+            }
+            shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+
+            // 평소보다 확실히 빨라졌다면 long RTT도 빨리 따라가게 (상대 서비스가 회복된 경우)
+            if (longRttNanos / shortRttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+
+            // 한도의 절반도 안 쓰고 있다면 늘릴 근거가 없음 (요청이 적어서 빠른 것일 수 있으니)
+            if (inFlightBefore < limit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            updateLimit(newLimit);
+        }
+    }
+
+    private void onCongestion() {
+        synchronized (this) {
+            updateLimit(limit * BACKOFF_RATIO);
+        }
+    }
+
+    // 상대 서비스가 밀리고 있다는 신호인 실패만 true
+    // 서킷 브레이커(NoFallbackAvailableException), CompletionException 등으로 감싸져 오므로 원인을 따라가며 본다.
+    static boolean isCongestion(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            // 응답은 제대로 받았는데 본문 변환에 실패한 경우 (AsyncHttpSupport) -> 상대가 밀린 것이 아님
+            if (cause instanceof UncheckedIOException) {
+                return false;
+            }
+            if (cause instanceof TimeoutException || cause instanceof IOException
+                    || cause instanceof RetryableException) {
+                return true;
+            }
+            // Feign 클라이언트 / 비동기 클라이언트(HttpServerErrorException, HttpClientErrorException)의 상태 코드 오류
+            if (cause instanceof FeignException feignException) {
+                return feignException.status() >= 500;
+            }
+            if (cause instanceof HttpStatusCodeException statusCodeException) {
+                return statusCodeException.getStatusCode().is5xxServerError();
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private void updateLimit(double newLimit) {
+        double bounded = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        if ((int) bounded != (int) limit) {
+            log.debug("{} 동시 호출 한도 변경: {} -> {}", name, (int) limit, (int) bounded);
+        }
+        limit = bounded;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.playdata.orderingservice.common.limiter;
+
+// 동시 호출 한도를 넘어서 호출을 보내지 않고 바로 거절했을 때 발생
+public class LimitExceededException extends RuntimeException {
+
+    public LimitExceededException(String message) {
+        super(message);
+    }
+
+}
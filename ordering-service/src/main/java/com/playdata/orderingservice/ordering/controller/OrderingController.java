@@ -3,11 +3,16 @@ package com.playdata.orderingservice.ordering.controller;
 import com.playdata.orderingservice.common.auth.TokenUserInfo;
 import com.playdata.orderingservice.common.dto.CommonResDto;
 import com.playdata.orderingservice.ordering.dto.OrderingListResDto;
+import com.playdata.orderingservice.ordering.dto.OrderingPageResDto;
 import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
 import com.playdata.orderingservice.ordering.entity.Ordering;
+import com.playdata.orderingservice.ordering.service.OrderIntakeSaga;
 import com.playdata.orderingservice.ordering.service.OrderingService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -22,17 +27,39 @@ import java.util.List;
 public class OrderingController {
 
     private final OrderingService orderingService;
+    private final OrderIntakeSaga orderIntakeSaga;
+
+    // 비동기 접수 모드 사용 여부 (true면 접수만 하고 202 응답, 나머지는 OrderIntakeSaga가 처리)
+    @Value("${ordering.intake.async.enabled:false}")
+    private boolean asyncIntakeEnabled;
+
+    // true면 'Prefer: respond-async' 헤더를 보낸 요청만 비동기로 처리 (클라이언트별로 전환 가능)
+    @Value("${ordering.intake.async.require-prefer-header:true}")
+    private boolean requirePreferHeader;
 
     @PostMapping("/create")
     public ResponseEntity<?>  createOrder(
             // 전역 인증 정보를 담아놓는 ContextHolder에서 메서드 호출시에
             // 사용자 인증 정보를 전달해 주는 아노테이션
             @AuthenticationPrincipal TokenUserInfo userInfo,
-            @RequestBody List<OrderingSaveReqDto> dtoList
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            // 주문 줄마다 상품 번호/수량 검증 (실패하면 400, CommonExceptionHandler)
+            @RequestBody @NotEmpty(message = "주문할 상품이 없습니다.") List<@Valid OrderingSaveReqDto> dtoList
             ) {
         log.info("/order/create: POST, userInfo: {}", userInfo);
         log.info("dtoList: {}", dtoList);
 
+        if (isAsyncIntake(prefer)) {
+            // 접수만 하고 바로 응답. 처리 결과는 GET /order/{id}의 orderStatus로 확인
+            // (ACCEPTED -> ORDERED / REJECTED / PENDING_*)
+            Ordering accepted = orderIntakeSaga.accept(dtoList, userInfo);
+            CommonResDto resDto
+                    = new CommonResDto(HttpStatus.ACCEPTED, "주문 접수 완료 (처리 중)", accepted.getId());
+            return ResponseEntity.accepted()
+                    .header("Preference-Applied", "respond-async")
+                    .body(resDto);
+        }
+
         Ordering ordering = orderingService.createOrder(dtoList, userInfo);
 
         CommonResDto resDto
@@ -41,13 +68,37 @@ public class OrderingController {
         return new ResponseEntity<>(resDto, HttpStatus.CREATED);
     }
 
+    private boolean isAsyncIntake(String prefer) {
+        if (!asyncIntakeEnabled) {
+            return false;
+        }
+        return !requirePreferHeader
+                || (prefer != null && prefer.toLowerCase().contains("respond-async"));
+    }
+
     // 내 주문만 볼 수 있는 MyOrders
+    // 커서 기반 페이징: 첫 페이지는 cursor 없이, 다음 페이지는 응답의 nextCursor를 cursor로 전달.
+    // detail=false면 주문 헤더만 내려주고, 상세는 GET /order/{id}로 필요한 주문만 조회.
     @GetMapping("/my-order")
     public ResponseEntity<?> myOrder(
-            @AuthenticationPrincipal TokenUserInfo userInfo) {
-        List<OrderingListResDto> dtos = orderingService.myOrder(userInfo);
-        CommonResDto<List<OrderingListResDto>> resDto
-                = new CommonResDto<>(HttpStatus.OK, "정상 조회 완료", dtos);
+            @AuthenticationPrincipal TokenUserInfo userInfo,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean detail) {
+        OrderingPageResDto page = orderingService.myOrder(userInfo, cursor, size, detail);
+        CommonResDto<OrderingPageResDto> resDto
+                = new CommonResDto<>(HttpStatus.OK, "정상 조회 완료", page);
+        return ResponseEntity.ok().body(resDto);
+    }
+
+    // 주문 하나의 상세 조회
+    @GetMapping("/{id}")
+    public ResponseEntity<?> findOrder(
+            @AuthenticationPrincipal TokenUserInfo userInfo,
+            @PathVariable long id) {
+        OrderingListResDto dto = orderingService.findOrder(userInfo, id);
+        CommonResDto<OrderingListResDto> resDto
+                = new CommonResDto<>(HttpStatus.OK, "정상 조회 완료", dto);
         return ResponseEntity.ok().body(resDto);
     }
 
@@ -0,0 +1,216 @@
+package com.playdata.orderingservice.ordering.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+관리자 SSE 연결 하나 + 그 연결 전용 전송 대기열
+
+예전에는 RabbitMQ 리스너 스레드가 모든 관리자에게 emitter.send를 직접 호출해서,
+브라우저 하나가 느리면(네트워크가 막히면) 리스너 전체가 멈추고 다른 관리자 알림과 다음 메시지까지 밀렸다.
+- 리스너는 각 연결의 대기열에 이벤트를 넣기만 하고 바로 돌아간다.
+- 실제 전송은 별도 실행기(sseSendExecutor)가 연결마다 한 번에 하나의 작업으로 순서대로 처리.
+- 대기열이 가득 찬(= 못 따라오는) 연결은 정책에 따라
+  DROP_OLDEST: 가장 오래된 이벤트를 버리고 새 이벤트를 넣음 (연속으로 너무 많이 버리면 연결 종료)
+  DISCONNECT: 바로 연결 종료 (클라이언트가 재연결하면 새 대기열로 다시 시작)
+- 대기열에 여러 건이 밀려 있으면 한 번의 쓰기(write + flush)로 묶어서 전송.
+- 쓰기 하나가 전송 타임아웃을 넘기면(소켓이 막힌 브라우저) 연결을 끊는다. (closeIfSendStalled)
+  막힌 쓰기는 그 연결의 전송 스레드만 붙잡고 있다가 소켓 오류로 끝난다.
+ */
+@Slf4j
+public class SseConnection {
+
+    public enum OverflowPolicy { DROP_OLDEST, DISCONNECT }
+
+    @Getter
+    private final String userEmail;
+    @Getter
+    private final SseEmitter emitter;
+
+    private final BlockingQueue<PendingEvent> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxConsecutiveDrops;
+    private final Executor sendExecutor;
+    private final Timer sendLatency;
+    private final Counter droppedEvents;
+    private final Counter slowDisconnects;
+    private final Runnable onClose;
+
+    // 전송 작업이 실행기에 올라가 있는지 (연결마다 동시에 하나만 -> 이벤트 순서 유지)
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private int consecutiveDrops; // 대기열 락(synchronized offer) 안에서만 변경
+    // 진행 중인 emitter.send의 시작 시각 (전송 중이 아니면 0)
+    private volatile long sendStartedAt;
+
+    // 한 번의 쓰기로 묶어 보낼 최대 대기열 항목 수
+    private static final int MAX_ITEMS_PER_WRITE = 64;
+
+    // 대기열 항목 하나 = SSE 이벤트 한 건 이상 (재전송 묶음은 여러 건이 한 항목)
+    private record PendingEvent(Set<ResponseBodyEmitter.DataWithMediaType> data, long enqueuedAt) {}
+
+    public SseConnection(String userEmail, SseEmitter emitter, int queueCapacity,
+                         OverflowPolicy overflowPolicy, int maxConsecutiveDrops, Executor sendExecutor,
+                         Timer sendLatency, Counter droppedEvents, Counter slowDisconnects,
+                         Runnable onClose) {
+        this.userEmail = userEmail;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.maxConsecutiveDrops = maxConsecutiveDrops;
+        this.sendExecutor = sendExecutor;
+        this.sendLatency = sendLatency;
+        this.droppedEvents = droppedEvents;
+        this.slowDisconnects = slowDisconnects;
+        this.onClose = onClose;
+    }
+
+    // 전송할 이벤트를 대기열에 넣는다. (호출한 스레드는 전송을 기다리지 않음)
+    // 연결이 이미 닫혔거나, 넘쳐서 연결을 끊었다면 false
+    public boolean offer(SseEmitter.SseEventBuilder event) {
+        return offerAll(List.of(event));
+    }
+
+    // 여러 이벤트를 대기열 한 칸에 묶어서 넣는다. (재연결 시 놓친 알림 재전송 -> 한 번의 쓰기로 전송됨)
+    public boolean offerAll(List<SseEmitter.SseEventBuilder> events) {
+        if (closed.get()) {
+            return false;
+        }
+        if (events.isEmpty()) {
+            return true;
+        }
+
+        Set<ResponseBodyEmitter.DataWithMediaType> data = new LinkedHashSet<>();
+        events.forEach(event -> data.addAll(event.build()));
+
+        boolean disconnect = false;
+        synchronized (this) {
+            PendingEvent pending = new PendingEvent(data, System.nanoTime());
+            if (queue.offer(pending)) {
+                consecutiveDrops = 0;
+            } else if (overflowPolicy == OverflowPolicy.DISCONNECT
+                    || ++consecutiveDrops > maxConsecutiveDrops) {
+                disconnect = true;
+            } else {
+                queue.poll();
+                queue.offer(pending);
+                droppedEvents.increment();
+            }
+        }
+
+        if (disconnect) {
+            log.info("SSE 전송이 밀려서 연결 종료: {} (대기 {}건)", userEmail, queue.size());
+            slowDisconnects.increment();
+            close();
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    // 심장 박동: 주석 한 줄을 보내본다. 끊긴 연결은 여기서 전송 오류가 나서 정리된다.
+    // 대기열에 이미 보낼 것이 있다면 그 전송이 같은 역할을 하므로 건너뜀 (밀린 연결에 더 쌓지 않도록)
+    public void heartbeat() {
+        if (queue.isEmpty()) {
+            offer(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        queue.clear();
+        completeEmitter();
+        onClose.run();
+    }
+
+    // 쓰기 하나가 timeoutNanos 넘게 끝나지 않았으면 연결 종료. 끊었으면 true
+    public boolean closeIfSendStalled(long timeoutNanos) {
+        long startedAt = sendStartedAt;
+        if (startedAt == 0 || System.nanoTime() - startedAt < timeoutNanos || !closed.compareAndSet(false, true)) {
+            return false;
+        }
+        log.info("SSE 전송이 {}ms 넘게 끝나지 않아서 연결 종료: {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), userEmail);
+        slowDisconnects.increment();
+        queue.clear();
+        // 막힌 send가 emitter의 쓰기 락을 쥐고 있어서 여기서 complete하면 이 스레드도 같이 멈춘다.
+        // -> 전송 실행기에 맡기고, 연결 목록/접속 기록에서는 바로 제거
+        try {
+            sendExecutor.execute(this::completeEmitter);
+        } catch (Exception ignored) {}
+        onClose.run();
+        return true;
+    }
+
+    private void completeEmitter() {
+        try {
+            emitter.complete();
+        } catch (Exception ignored) {}
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                sendExecutor.execute(this::drain);
+            } catch (Exception e) {
+                draining.set(false);
+                log.warn("SSE 전송 작업 등록 실패: {} - {}", userEmail, e.getMessage());
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            List<PendingEvent> batch = new ArrayList<>();
+            while (!closed.get() && queue.drainTo(batch, MAX_ITEMS_PER_WRITE) > 0) {
+                Set<ResponseBodyEmitter.DataWithMediaType> data = new LinkedHashSet<>();
+                batch.forEach(pending -> data.addAll(pending.data()));
+                try {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(data);
+                    // 대기열에 들어온 시점부터 실제로 써질 때까지
+                    long now = System.nanoTime();
+                    batch.forEach(pending -> sendLatency.record(now - pending.enqueuedAt(), TimeUnit.NANOSECONDS));
+                    batch.clear();
+                } catch (Exception e) {
+                    log.debug("알림 전송 실패 (연결 제거): {}", userEmail);
+                    close();
+                    return;
+                } finally {
+                    sendStartedAt = 0;
+                }
+            }
+        } finally {
+            draining.set(false);
+        }
+        // 작업을 끝내는 사이에 새로 들어온 이벤트가 있으면 다시 등록
+        if (!closed.get() && !queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+}
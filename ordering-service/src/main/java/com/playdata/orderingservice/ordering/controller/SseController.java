@@ -1,18 +1,37 @@
 package com.playdata.orderingservice.ordering.controller;
 
 import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationDigest;
 import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import com.playdata.orderingservice.ordering.service.AdminPresenceService;
+import com.playdata.orderingservice.ordering.service.OrderNotificationDigester;
+import com.playdata.orderingservice.ordering.service.OrderNotificationLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @RestController
 @RequiredArgsConstructor
@@ -26,154 +45,341 @@ public class SseController {
     인스턴스2 -> 관리자C
     인스턴스3 -> 관리자D, 관리자E
 
-    새 주문 -> RabbitMQ Queue -> 인스턴스 1,2,3는 동시에 동일한 메시지 수신. -> 관리자에게 알림 전송 가능
+    새 주문 -> order.exchange -> 인스턴스별 임시 큐 -> 인스턴스 1,2,3는 동시에 동일한 메시지 수신. -> 관리자에게 알림 전송 가능
     각 인스턴스는 자기와 연결된 관리자만 신경쓰면 됨. -> 관리자가 여러명일 수 있으니 그들을 Map으로 관리
+    (관리자가 어느 인스턴스에 연결돼 있는지는 AdminPresenceService가 Redis에 기록 -> 한 명에게 한 번만 전송)
      */
-    private final Map<String, SseEmitter> activeConnections
+    // 연결마다 전송 대기열(SseConnection)을 함께 보관 -> 리스너 스레드는 대기열에 넣기만 한다.
+    private final Map<String, SseConnection> activeConnections
             = new ConcurrentHashMap<>();
 
-    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AdminPresenceService adminPresenceService;
+
+    // 놓친 알림 재전송용 기록 (예전의 admin.pending.notifications 큐를 대신함)
+    private final OrderNotificationLog notificationLog;
+
+    // 주문이 몰릴 때 알림을 요약으로 합치는 역할
+    private final OrderNotificationDigester digester;
+
+    // 대기열을 비우면서 실제로 emitter.send를 하는 실행기 (AsyncConfig)
+    private final Executor sseSendExecutor;
+
+    // 대기열에 알림을 넣는 작업(새 알림, 요약 구간 종료, 접속 시 놓친 알림)은 한 번에 하나씩
+    // -> 연결마다 이벤트 id가 항상 커지는 순서로 들어간다. (Last-Event-ID가 뒤로 가지 않음)
+    private final Object fanOutLock = new Object();
+
+    @Value("${ordering.sse.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${ordering.sse.overflow-policy:DROP_OLDEST}")
+    private SseConnection.OverflowPolicy overflowPolicy;
+
+    @Value("${ordering.sse.max-consecutive-drops:100}")
+    private int maxConsecutiveDrops;
+
+    // 쓰기 하나가 이보다 오래 걸리면 막힌 연결로 보고 끊는다.
+    @Value("${ordering.sse.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    // Last-Event-ID 없이 처음 접속했을 때 보여줄 최근 알림 수
+    @Value("${ordering.sse.log.initial-backlog:20}")
+    private int initialBacklog;
+
+    // ordering.sse.connections / queue.depth / queue.max-depth / send.latency / dropped / disconnected
+    private Timer sendLatency;
+    private Counter droppedEvents;
+    private Counter slowDisconnects;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("ordering.sse.connections", activeConnections, Map::size)
+                .description("이 인스턴스에 연결된 관리자 SSE 수")
+                .register(meterRegistry);
+        Gauge.builder("ordering.sse.queue.depth", activeConnections,
+                        connections -> connections.values().stream().mapToInt(SseConnection::queueDepth).sum())
+                .description("모든 연결의 전송 대기 이벤트 수 합계")
+                .register(meterRegistry);
+        Gauge.builder("ordering.sse.queue.max-depth", activeConnections,
+                        connections -> connections.values().stream().mapToInt(SseConnection::queueDepth).max().orElse(0))
+                .description("가장 많이 밀린 연결의 전송 대기 이벤트 수")
+                .register(meterRegistry);
+        sendLatency = Timer.builder("ordering.sse.send.latency")
+                .description("이벤트가 대기열에 들어온 뒤 전송되기까지 걸린 시간")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        droppedEvents = Counter.builder("ordering.sse.dropped")
+                .description("대기열이 가득 차서 버린 이벤트 수")
+                .register(meterRegistry);
+        slowDisconnects = Counter.builder("ordering.sse.disconnected")
+                .tag("reason", "slow")
+                .description("전송이 밀려서 서버가 끊은 연결 수")
+                .register(meterRegistry);
+    }
 
     @GetMapping("/subscribe")
-    public SseEmitter subscribe(@AuthenticationPrincipal TokenUserInfo userInfo) {
+    // Last-Event-ID: 브라우저(EventSource)가 재연결할 때 마지막으로 받은 이벤트 id를 헤더로 보내준다.
+    // 헤더를 직접 붙일 수 없는 클라이언트는 ?lastEventId= 로 전달.
+    public SseEmitter subscribe(@AuthenticationPrincipal TokenUserInfo userInfo,
+                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
         String userEmail = userInfo.getEmail();
+        String lastEventId = parseEventId(lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam);
 
         // 매우 긴 타임아웃 설정 (5시간) - EventSourcePolyfill이 알아서 재연결함
         SseEmitter emitter = new SseEmitter(0L);
+        SseConnection connection = newConnection(userEmail, emitter);
 
         log.info("SSE 구독 시작: {}", userEmail);
 
         try {
-            // 기존 연결이 있다면 정리
-            SseEmitter oldEmitter = activeConnections.put(userEmail, emitter);
-            if (oldEmitter != null) {
-                try {
-                    oldEmitter.complete();
-                } catch (Exception e) {
-                    // 무시
-                }
+            synchronized (fanOutLock) {
+                start(connection, userEmail, emitter, lastEventId);
             }
-
-            // 연결 확인 메시지만 전송
-            emitter.send(SseEmitter.event()
-                    .name("connect")
-                    .data("SSE connected"));
-
-            // 로그인 시 대기중인 알림들 한번에 전송
-            sendPendingNotifications(emitter, userEmail);
-
-            // 연결 종료 시 정리 - 매우 간단하게
-            emitter.onCompletion(() -> {
-                activeConnections.remove(userEmail);
-                log.info("SSE 연결 정상 종료: {}", userEmail);
-            });
-
-            emitter.onTimeout(() -> {
-                activeConnections.remove(userEmail);
-                log.info("SSE 연결 타임아웃: {}", userEmail);
-            });
-
-            emitter.onError((ex) -> {
-                activeConnections.remove(userEmail);
-                // Broken pipe -> 연결이 실패했거나, 연결이 중간에 끊겼을 때 발생하는 예외
-                if (ex.getMessage() != null && ex.getMessage().contains("Broken pipe")) {
-                    log.debug("SSE 연결 끊김 (클라이언트 종료): {}", userEmail);
-                } else {
-                    log.info("SSE 연결 오류: {} - {}", userEmail, ex.getMessage());
-                }
-            });
-
         } catch (Exception e) {
             log.error("SSE 초기화 실패: {}", userEmail, e);
-            activeConnections.remove(userEmail);
+            connection.close();
         }
 
         return emitter;
     }
 
-    private void sendPendingNotifications(SseEmitter emitter, String userEmail) {
-        try {
-            int count = 0;
-            Object message;
-
-            while (
-                    // pending 큐에서 메세지를 하나 가져왔을 때 결과가 null이 아니라면 반복문 실행, null이면 반복문 종료.
-                    (message = rabbitTemplate.receiveAndConvert("admin.pending.notifications")) != null) {
-                if (message instanceof OrderNotificationEvent) {
-                    emitter.send(SseEmitter.event()
-                            .name("pending-order")
-                            .data(message));
-                    count++;
-                }
-                // 너무 많으면 제한
-                if (count >= 100) break;
-            }
+    // 연결 등록 + 놓친 알림 전송. 그 사이에 새 알림이 먼저 들어가지 않도록 fanOutLock 안에서 호출
+    private void start(SseConnection connection, String userEmail, SseEmitter emitter, String lastEventId) {
+        // 요약 구간에 모아둔 알림은 readNew가 이미 지나간 것이라 since 범위(~ cursor)에 들어간다.
+        // 먼저 기존 연결들에게 요약으로 보내서 비워둔다. -> 새 연결은 놓친 알림으로만 한 번 받는다. (구간 종료 때 또 받지 않음)
+        flushPendingDigest();
+
+        // 기존 연결이 있다면 정리
+        SseConnection oldConnection = activeConnections.put(userEmail, connection);
+        if (oldConnection != null) {
+            oldConnection.close();
+        }
+        // 이제부터 이 관리자에게는 이 인스턴스가 알림을 보낸다.
+        adminPresenceService.register(userEmail);
+
+        // 연결 종료 시 정리 - 매우 간단하게
+        emitter.onCompletion(() -> {
+            connection.close();
+            log.info("SSE 연결 정상 종료: {}", userEmail);
+        });
+
+        emitter.onTimeout(() -> {
+            connection.close();
+            log.info("SSE 연결 타임아웃: {}", userEmail);
+        });
 
-            if (count > 0) {
-                log.info("관리자 {}, 대기중인 {}개 주문 알림 발송.", userEmail, count);
+        emitter.onError((ex) -> {
+            connection.close();
+            // Broken pipe -> 연결이 실패했거나, 연결이 중간에 끊겼을 때 발생하는 예외
+            if (ex.getMessage() != null && ex.getMessage().contains("Broken pipe")) {
+                log.debug("SSE 연결 끊김 (클라이언트 종료): {}", userEmail);
             } else {
-                log.info("대기중인 알림 없음!");
+                log.info("SSE 연결 오류: {} - {}", userEmail, ex.getMessage());
             }
+        });
 
-        } catch (Exception e) {
-            log.error("대기 중인 알림 전송 실패: {}", userEmail, e);
+        // 연결 확인 메시지만 전송
+        connection.offer(SseEmitter.event()
+                .name("connect")
+                .data("SSE connected"));
+
+        // 놓친 알림들 한번에 전송 (처음 접속이면 최근 알림 몇 건)
+        sendMissedNotifications(connection, userEmail, lastEventId);
+    }
+
+    private SseConnection newConnection(String userEmail, SseEmitter emitter) {
+        return new SseConnection(userEmail, emitter, queueCapacity, overflowPolicy, maxConsecutiveDrops,
+                sseSendExecutor, sendLatency, droppedEvents, slowDisconnects, () -> {
+                    // 닫힌 연결만 맵에서 제거 (같은 관리자가 다시 연결한 경우 새 연결까지 지우지 않도록)
+                    SseConnection current = activeConnections.get(userEmail);
+                    if (current != null && current.isClosed()
+                            && activeConnections.remove(userEmail, current)) {
+                        adminPresenceService.unregister(userEmail);
+                    }
+                });
+    }
+
+    // 알림 기록에서 lastEventId 이후의 알림을 꺼내서 한 번의 쓰기로 전송.
+    // 예전 대기 큐처럼 꺼낸다고 사라지지 않으므로, 다른 관리자나 다음 재연결도 같은 알림을 받을 수 있다.
+    private void sendMissedNotifications(SseConnection connection, String userEmail, String lastEventId) {
+        List<OrderNotificationLog.Entry> missed = notificationLog.since(lastEventId, initialBacklog);
+        if (missed.isEmpty()) {
+            log.info("대기중인 알림 없음!");
+            return;
+        }
+
+        // 놓친 알림이 많으면 요약 알림 하나로
+        if (digester.shouldSummarize(missed.size())) {
+            connection.offer(digestEvent(digester.summarize(missed), missed.get(missed.size() - 1).id()));
+            log.info("관리자 {}, 대기중인 {}개 주문 알림을 요약해서 발송. (Last-Event-ID: {})",
+                    userEmail, missed.size(), lastEventId);
+            return;
         }
 
+        List<SseEmitter.SseEventBuilder> events = missed.stream()
+                .map(entry -> SseEmitter.event()
+                        .id(entry.id())
+                        .name("pending-order")
+                        .data(entry.event()))
+                .toList();
+        connection.offerAll(events);
+        log.info("관리자 {}, 대기중인 {}개 주문 알림 발송. (Last-Event-ID: {})", userEmail, missed.size(), lastEventId);
+    }
+
+    // 이벤트 id = 알림 기록(Redis 스트림)의 id. 예전 숫자 id나 잘못된 값이면 처음 접속처럼 최근 알림부터
+    private String parseEventId(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (!OrderNotificationLog.isEventId(trimmed)) {
+            log.debug("잘못된 Last-Event-ID 무시: {}", value);
+            return null;
+        }
+        return trimmed;
     }
 
     /*
     이전에는 emitter를 하나만 생성했고, Map이 없어서 따로 보관을 못했습니다.
     그래서 큐에 메시지 들어오면 수신하는 메서드를 직접 호출하는 방식을 쓸 수밖에 없어서 RabbitListener를 못썼음.
     지금은 우리가 emitter 객체를 Map에 저장해 놓고 언제든 꺼내서 쓸 수 있기 때문에
-    @RabbitListener를 사용할 수 있다. -> admin.order.notifications 큐에 메세지 발신되면 자동 호출
+    @RabbitListener를 사용할 수 있다. -> 이 인스턴스의 알림 큐에 메세지 발신되면 자동 호출
+    (큐 이름은 인스턴스마다 다르므로 빈(adminNotificationQueue)의 이름을 SpEL로 꺼내서 사용)
      */
-    @RabbitListener(queues = "admin.order.notifications")
-    public void handleOrderNotification(OrderNotificationEvent event) {
+    // 배치 리스너: 한 번에 최대 batch-size건을 받아서 (notificationListenerContainerFactory)
+    // 관리자마다 대기열 한 칸 = 한 번의 쓰기로 묶어서 보낸다. 메시지 하나씩 받던 때보다 쓰기/flush 횟수가 크게 줄어듦.
+    @RabbitListener(queues = "#{adminNotificationQueue.name}",
+            containerFactory = "notificationListenerContainerFactory")
+    public void handleOrderNotifications(List<Message<OrderNotificationEvent>> messages) {
         // json 문자열을 직접 DTO로 변환할 필요 없고, 매개값으로 선언해서 받으세요.
         // RabbitListener가 변환 해줍니다 -> Listener가 converter를 내장하고 있어요.
+        synchronized (fanOutLock) {
+            deliverNewNotifications(messages);
+        }
+    }
+
+    // 스트림에서 새 알림을 읽고 -> 요약 구간에 넣고 -> 바로 보낼 것만 전송. 구간 종료(flushDigest)와 번갈아 실행
+    private void deliverNewNotifications(List<Message<OrderNotificationEvent>> messages) {
+        // 메시지는 "새 알림이 있다"는 신호. 보낼 알림과 순서는 알림 기록(Redis 스트림)에서 읽는다.
+        // -> 모든 인스턴스가 같은 순서, 같은 이벤트 id로 보낸다. 아웃박스 재발송으로 온 중복 메시지는 읽을 것이 없음.
+        List<OrderNotificationLog.Entry> fresh;
+        List<OrderNotificationEvent> withoutId = new ArrayList<>();
+        try {
+            fresh = notificationLog.readNew();
+        } catch (Exception e) {
+            // Redis 장애: 받은 알림을 id 없이 바로 보낸다. (이어 받기는 안 되지만 실시간 알림은 유지)
+            log.warn("알림 기록 조회 실패, 받은 알림 {}건을 id 없이 전송: {}", messages.size(), e.getMessage());
+            fresh = List.of();
+            messages.forEach(message -> withoutId.add(message.getPayload()));
+        }
+        if (fresh.isEmpty() && withoutId.isEmpty()) {
+            return;
+        }
 
-        // 활성화된 sse 연결이 없으면 즉시 종료
+        // 이 인스턴스에 활성화된 sse 연결이 없으면 즉시 종료 (알림 기록에는 남아 있음)
         if (activeConnections.isEmpty()) {
-            rabbitTemplate.convertAndSend("admin.pending.notifications", event);
-            log.info("활성 관리자 없음 - 대기 큐로 전송, 주문: {}", event.getOrderId());
+            log.info("활성 관리자 없음 - 알림 기록에만 보관, 알림: {}건", fresh.size() + withoutId.size());
             return;
         }
 
+        // 주문이 몰리는 중이면 일부(또는 전부)는 구간이 끝날 때 요약 알림으로 (flushDigest)
+        List<OrderNotificationLog.Entry> immediate = digester.admit(fresh);
+        if (immediate.isEmpty() && withoutId.isEmpty()) {
+            return;
+        }
+
+        log.info("새 주문 알림 {}건 - 활성 관리자: {}", immediate.size() + withoutId.size(), activeConnections.size());
+        // 이벤트 빌더는 build() 때 내용이 바뀌므로 연결마다 새로 만든다.
+        fanOut(() -> newOrderEvents(immediate, withoutId));
+    }
+
+    // 이 인스턴스가 주인인 관리자에게만 전송 (다른 인스턴스로 재연결한 관리자의 예전 연결은 제외)
+    // 각 연결의 대기열에 넣기만 하고 바로 다음 연결로 -> 느린 브라우저가 있어도 리스너는 기다리지 않음
+    // 실제 전송과 실패한 연결의 정리는 sseSendExecutor에서 진행된다.
+    private void fanOut(Supplier<List<SseEmitter.SseEventBuilder>> events) {
         try {
-            log.info("수신된 메시지 객체: {}", event);
-            log.info("새 주문 알림 - 활성 관리자: {}", activeConnections.size());
-
-            // 안전하게 메시지 전송
-            /*
-            entrySet(): Map에 있는 데이터를 Entry(사용자이메일 + emitter객체)타입으로 묶어서 하나씩 처리
-            removeIf(): true를 반환하면 -> 해당 entry를 Map에서 제거
-                        false를 반환하면 -> 해당 entry를 Map에 유지
-            Map에 있는 Entry를 하나씩 순회하면서 연결된 모든 관리자에게 알림을 전송하는 로직 작성
-             */
-            activeConnections.entrySet().removeIf(entry -> {
-                try {
-                    entry.getValue().send(SseEmitter.event()
-                            .name("new-order")
-                            .data(event));
-                    return false; // 전송 성공 - 연결 유지 -> 맵에 계속 보관하자
-                } catch (Exception e) {
-                    log.debug("알림 전송 실패 (연결 제거): {}", entry.getKey());
-                    try {
-                        entry.getValue().complete();
-                    } catch (Exception ignored) {}
-                    return true; // 전송 실패 - 제거
+            Set<String> owned = adminPresenceService.ownedBy(activeConnections.keySet());
+            for (String email : owned) {
+                SseConnection connection = activeConnections.get(email);
+                if (connection == null || !connection.offerAll(events.get())) {
+                    log.debug("알림 대기열 추가 실패 (연결 종료됨): {}", email);
                 }
-            });
-
+            }
         } catch (Exception e) {
             log.error("주문 알림 처리 실패", e);
         }
+    }
 
-        // 전송 후 체크 -> 처음 시작부에서는 문제가 없는데, 전송 과정에서 연결이 실패할 수도 있음.
-        // 전송 과정 중 연결이 끊겼다면 알림을 대기 큐로 전송
+    // 요약 구간 종료: 구간 동안 모아둔 알림을 요약 알림 하나로 전송
+    // 구간을 닫는 것과 전송을 같은 락 안에서 -> 그 사이에 리스너가 더 최근 알림을 먼저 보내지 못한다.
+    @Scheduled(fixedDelayString = "${ordering.sse.digest.window-ms:1000}")
+    public void flushDigest() {
+        synchronized (fanOutLock) {
+            flushPendingDigest();
+        }
+    }
+
+    // fanOutLock 안에서 호출 (구간 종료, 새 연결 시작)
+    private void flushPendingDigest() {
+        OrderNotificationDigester.Digest digest = digester.closeWindow();
+        if (digest == null) {
+            return;
+        }
+        log.info("주문 알림 요약 전송: {}건 - 활성 관리자: {}", digest.digest().getOrderCount(), activeConnections.size());
+        fanOut(() -> List.of(digestEvent(digest.digest(), digest.lastEventId())));
+    }
+
+    // 이벤트 id = 요약에 포함된 마지막 알림 id -> 재연결하면 그 다음 알림부터 이어 받는다.
+    private SseEmitter.SseEventBuilder digestEvent(OrderNotificationDigest digest, String lastEventId) {
+        return SseEmitter.event()
+                .id(lastEventId)
+                .name("order-digest")
+                .data(digest);
+    }
+
+    private List<SseEmitter.SseEventBuilder> newOrderEvents(List<OrderNotificationLog.Entry> entries,
+                                                            List<OrderNotificationEvent> withoutId) {
+        List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+        for (OrderNotificationLog.Entry entry : entries) {
+            events.add(SseEmitter.event()
+                    .id(entry.id()) // 브라우저가 기억했다가 재연결 때 Last-Event-ID로 보내줌
+                    .name("new-order")
+                    .data(entry.event()));
+        }
+        for (OrderNotificationEvent event : withoutId) {
+            events.add(SseEmitter.event()
+                    .name("new-order")
+                    .data(event));
+        }
+        return events;
+    }
+
+    // 소켓이 막혀서 쓰기가 끝나지 않는 연결 정리 (전송 타임아웃)
+    // 심장 박동 주기보다 짧게 돌아야 막힌 연결에 이벤트가 계속 쌓이지 않는다.
+    @Scheduled(fixedDelayString = "${ordering.sse.send-timeout-check-ms:1000}")
+    public void closeStalledConnections() {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        activeConnections.values().forEach(connection -> connection.closeIfSendStalled(timeoutNanos));
+    }
+
+    // 주기적으로 모든 연결에 심장 박동을 보낸다.
+    // 브라우저가 말없이 사라진 연결은 전송할 일이 없으면 영원히 남아 있으므로, 여기서 전송 오류가 나게 해서 정리.
+    // (프록시/로드밸런서의 유휴 연결 타임아웃으로 끊기는 것도 막아줌)
+    @Scheduled(fixedDelayString = "${ordering.sse.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
         if (activeConnections.isEmpty()) {
-            rabbitTemplate.convertAndSend("admin.pending.notifications", event);
-            log.info("활성 관리자 없음 - 대기 큐로 전송, 주문: {}", event.getOrderId());
+            return;
         }
+        // Redis의 연결 기록도 함께 연장. 다른 인스턴스로 옮겨간 관리자의 예전 연결은 여기서 닫는다.
+        Set<String> movedAway = adminPresenceService.refresh(activeConnections.keySet());
+        movedAway.forEach(email -> {
+            SseConnection connection = activeConnections.get(email);
+            if (connection != null) {
+                log.info("다른 인스턴스로 재연결된 관리자의 예전 연결 종료: {}", email);
+                connection.close();
+            }
+        });
+        activeConnections.values().forEach(SseConnection::heartbeat);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.playdata.orderingservice.ordering.dto;
+
+import lombok.*;
+
+// 비동기 접수 모드에서 접수된 주문의 처리를 요청하는 사가 메시지 (order.saga.accepted)
+// 주문 내역은 DB(originalRequestJson)에 있으니 주문 번호만 보낸다.
+@Getter @Setter @ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderAcceptedEvent {
+
+    private Long orderId;
+
+}
@@ -0,0 +1,37 @@
+package com.playdata.orderingservice.ordering.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// 주문이 몰릴 때 여러 건의 주문 알림을 하나로 합친 요약 알림 (SSE 이벤트 이름: order-digest)
+@Getter @Setter @ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderNotificationDigest {
+
+    private int orderCount; // 합쳐진 주문 수
+    private int totalItems; // 합쳐진 주문들의 총 상품 개수
+    private List<ProductCount> topProducts; // 가장 많이 주문된 상품들 (수량 내림차순)
+    private Long firstOrderId; // 가장 작은 주문 id
+    private Long lastOrderId; // 가장 큰 주문 id
+    private List<Long> orderIds; // 주문 id 목록 (너무 많으면 앞부분만, 나머지는 id 범위로 확인)
+    private boolean orderIdsTruncated; // orderIds가 잘렸는지
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime fromTime; // 가장 이른 주문 시간
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime toTime; // 가장 늦은 주문 시간
+
+    @Getter @Setter @ToString
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ProductCount {
+        private Long productId;
+        private int quantity;
+    }
+
+}
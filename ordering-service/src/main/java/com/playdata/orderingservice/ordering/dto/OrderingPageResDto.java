@@ -0,0 +1,18 @@
+package com.playdata.orderingservice.ordering.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// 내 주문 목록 한 페이지 (커서 기반)
+// 다음 페이지는 nextCursor를 cursor 파라미터로 넘겨서 요청한다.
+@Getter @Setter @ToString
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class OrderingPageResDto {
+
+    private List<OrderingListResDto> orders;
+    private Long nextCursor; // 이번 페이지의 마지막 주문 id (다음 페이지가 없으면 null)
+    private boolean hasNext;
+
+}
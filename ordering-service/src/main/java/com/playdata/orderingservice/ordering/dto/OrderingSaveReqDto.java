@@ -1,5 +1,7 @@
 package com.playdata.orderingservice.ordering.dto;
 
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.*;
 
 @Getter @Setter @ToString
@@ -9,7 +11,11 @@ import lombok.*;
 public class OrderingSaveReqDto {
 
     // 누가 주문했는지에 대한 정보는 JWT에 있습니다. (프론트가 토큰을 같이 보낼 거에요.)
+    @NotNull(message = "상품 번호는 필수입니다!")
     private Long productId;
+
+    // 0개나 음수 주문은 접수 단계에서 거절 (product-service까지 보내지 않는다)
+    @Positive(message = "주문 수량은 1개 이상이어야 합니다.")
     private int productQuantity;
 
 }
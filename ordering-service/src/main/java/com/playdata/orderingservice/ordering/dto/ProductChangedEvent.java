@@ -0,0 +1,19 @@
+package com.playdata.orderingservice.ordering.dto;
+
+import lombok.*;
+
+// product-service가 상품 수정/삭제 후 발행하는 이벤트 (product.exchange)
+@Getter @Setter @ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangedEvent {
+
+    private Long productId;
+    private ChangeType changeType;
+
+    public enum ChangeType {
+        UPDATED, DELETED
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.playdata.orderingservice.ordering.dto;
+
+import lombok.*;
+
+@Getter @Setter @ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductReserveResDto {
+
+    // product-service가 돌려주는 주문 줄 단위 재고 예약 결과
+    private Long productId;
+    private int requestedQuantity;
+    private ReserveResult result;
+    private int remainingQuantity;
+
+    public enum ReserveResult {
+        RESERVED, // 재고 차감 완료
+        OUT_OF_STOCK, // 재고 부족
+        NOT_FOUND, // 존재하지 않는 상품
+        NOT_APPLIED // 다른 상품 줄의 실패로 전체 예약이 취소됨
+    }
+
+}
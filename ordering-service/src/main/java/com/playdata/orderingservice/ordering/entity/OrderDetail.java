@@ -13,8 +13,10 @@ import java.util.Map;
 @Entity
 public class OrderDetail {
 
+    // Ordering과 같은 이유로 시퀀스 사용 (주문 상세 INSERT를 한 번에 묶어서 전송)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_detail_seq")
+    @SequenceGenerator(name = "order_detail_seq", sequenceName = "order_detail_seq", allocationSize = 50)
     private Long id;
 
     private int quantity;
@@ -26,6 +28,11 @@ public class OrderDetail {
     @JoinColumn(name = "ordering_id")
     private Ordering ordering;
 
+    // 이 줄의 재고를 product-service에서 실제로 가져갔는지 (줄 단위 처리는 줄마다 성공/실패가 갈린다)
+    // 재처리 때는 이미 차감한 줄을 건너뛰고, 취소/거절/보상 때는 가져간 줄만 되돌린다.
+    @Builder.Default
+    private boolean stockDeducted = false;
+
     // 엔터티를 dto로 변환하는 메서드
     // 내부 클래스이기 때문에 OrderingListResDto 이름으로 참조하는 모습
     public OrderingListResDto.OrderDetailDto fromEntity(Map<Long, String> map) {
@@ -0,0 +1,52 @@
+package com.playdata.orderingservice.ordering.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/*
+트랜잭셔널 아웃박스(outbox) 테이블.
+주문(Ordering)을 저장하는 트랜잭션 안에서 "보낼 메시지"를 이 테이블에 같이 INSERT 해 두고,
+실제 RabbitMQ 발송은 OrderOutboxRelay가 백그라운드에서 모아서 처리합니다.
+-> 주문 응답 시간이 브로커 상태에 영향을 받지 않고, 브로커가 잠깐 죽어도 알림이 사라지지 않는다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "order_outbox",
+        indexes = @Index(name = "idx_order_outbox_sent_at", columnList = "sentAt, id"))
+public class OrderOutbox {
+
+    // Ordering과 같은 이유로 시퀀스 사용 (주문/주문 상세와 같은 flush에서 INSERT를 묶어서 전송)
+    // 인스턴스마다 id 블록을 따로 받아 가므로 id 순서가 저장 순서와 정확히 같지는 않다.
+    // -> 릴레이의 ORDER BY id는 대략적인 오래된 순서. 알림 순서는 알림 기록(Redis 스트림)이 정한다.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    private Long orderId; // 어떤 주문에서 발생한 메시지인지
+
+    private String exchange; // 보낼 Exchange
+    private String routingKey; // Routing Key
+
+    @Column(columnDefinition = "TEXT")
+    private String payload; // 메시지 본문 (JSON)
+
+    private String payloadType; // 본문을 다시 객체로 되돌릴 때 사용할 클래스 이름
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt; // null이면 아직 발송 전
+
+    // 브로커 발송 + 확인(confirm)까지 끝난 뒤에 호출
+    public void markSent(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+}
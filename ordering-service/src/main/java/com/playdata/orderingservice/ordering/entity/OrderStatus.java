@@ -1,9 +1,11 @@
 package com.playdata.orderingservice.ordering.entity;
 
 public enum OrderStatus {
+    ACCEPTED, // 주문 접수 (비동기 접수 모드, 회원 확인/재고 차감은 아직 진행 전)
     ORDERED, // 주문 완료
     PENDING_USER_FAILURE, // 주문 보류 (user-service의 장애)
     PENDING_PROD_NOT_FOUND, // 주문 보류 (product-service의 상품 조회 장애)
     PENDING_PROD_STOCK_UPDATE, // 주문 보류 (product-service의 재고 감소 장애)
+    REJECTED, // 주문 거절 (비동기 접수/재처리 중 재고 부족 등으로 처리 불가, 최종 상태)
     CANCELED // 주문 취소
 }
@@ -3,7 +3,9 @@ package com.playdata.orderingservice.ordering.entity;
 import com.playdata.orderingservice.ordering.dto.OrderingListResDto;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -16,8 +18,11 @@ import java.util.Map;
 @Entity
 public class Ordering {
 
+    // IDENTITY는 INSERT를 해야 id를 알 수 있어서 하이버네이트가 INSERT를 묶어서(batch) 보내지 못한다.
+    // 시퀀스(MySQL은 ordering_seq 테이블로 흉내)에서 id를 50개씩 미리 받아 두고 메모리에서 나눠 준다.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ordering_seq")
+    @SequenceGenerator(name = "ordering_seq", sequenceName = "ordering_seq", allocationSize = 50)
     private Long id;
 
     /*
@@ -47,15 +52,36 @@ public class Ordering {
     @Setter
     private String originalRequestJson;
 
+    // 하이버네이트 6은 MySQL에서 @Enumerated(STRING)을 네이티브 enum('ORDERED', ...) 컬럼으로 만든다.
+    // 상태를 추가하면 컬럼 정의도 바뀌어야 하는데 ddl-auto update는 있는 컬럼을 고치지 않음 -> 문자열 컬럼으로 고정.
+    // (이미 enum으로 만들어진 DB는 OrderStatusColumnInitializer가 기동 시 변경)
     @Enumerated(EnumType.STRING)
+    @Column(columnDefinition = "varchar(32)")
     @Builder.Default
     private OrderStatus orderStatus = OrderStatus.ORDERED;
 
     // CascadeType.PERSIST로 설정하면 새로운 엔터티 생성만 처리하고 기존 엔터티 업데이트는
     // 자동으로 처리되지 않습니다. -> MERGE (부모 엔터티 업데이트 시 연관 엔터티도 함께 업데이트)
+    // fetch join 없이 여러 주문의 상세를 꺼내게 되더라도 주문마다 쿼리가 나가지 않도록
+    // 최대 100개 주문의 상세를 IN 쿼리 한 번으로 묶어서 가져온다.
     @OneToMany(mappedBy = "ordering", cascade = CascadeType.ALL)
+    @BatchSize(size = 100)
     private List<OrderDetail> orderDetails;
 
+    // ---- 주문 재처리(OrderRetryScheduler)용 필드 ----
+    // 지금까지 재처리에 실패한 횟수 -> 다음 시도까지의 대기 시간을 점점 늘리는 데 사용 (지수 백오프)
+    @Builder.Default
+    private int retryCount = 0;
+
+    // 이 시간이 지나야 다음 재처리 대상이 된다. (null이면 바로 대상)
+    private LocalDateTime nextAttemptAt;
+
+    // 재처리를 맡은 인스턴스 표시 (임대, lease)
+    // ordering-service가 여러 대 떠 있어도 하나의 주문은 한 인스턴스만 재처리하도록,
+    // leaseUntil이 지나기 전까지는 다른 인스턴스가 가져가지 않는다.
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+
     // lombok의 setter를 사용해도 되지만, 원하는 필드값을 수정하기 위한 메서드를 직접 작성해도 됩니다.
     // 조건문, 반복문 등을 세팅해야 된다면 더더욱 직접 setter를 만들어야 합니다.
     public void updateStatus(OrderStatus orderStatus) {
@@ -63,6 +89,18 @@ public class Ordering {
     }
 
 
+    // 재처리 실패 -> 실패 횟수를 올리고 다음 시도 시간을 잡은 뒤 임대 해제
+    public void scheduleRetry(LocalDateTime nextAttemptAt) {
+        this.retryCount++;
+        this.nextAttemptAt = nextAttemptAt;
+        releaseLease();
+    }
+
+    public void releaseLease() {
+        this.leaseOwner = null;
+        this.leaseUntil = null;
+    }
+
     // dto 변환 메서드
     public OrderingListResDto fromEntity(
             String email, Map<Long, String> productIdToNameMap
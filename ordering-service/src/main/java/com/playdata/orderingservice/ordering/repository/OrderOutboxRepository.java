@@ -0,0 +1,28 @@
+package com.playdata.orderingservice.ordering.repository;
+
+import com.playdata.orderingservice.ordering.entity.OrderOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutbox, Long> {
+
+    // 아직 발송하지 않은 메시지를 오래된 순서로 잠그면서 가져옵니다.
+    // lock.timeout = -2 -> SKIP LOCKED: 다른 인스턴스가 잡고 있는 행은 건너뛰므로
+    // ordering-service가 여러 대여도 같은 메시지를 동시에 발송하지 않는다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OrderOutbox o WHERE o.sentAt IS NULL ORDER BY o.id")
+    List<OrderOutbox> findUnsentForUpdate(Pageable pageable);
+
+    // 발송이 끝난 지 오래된 메시지 정리
+    @Modifying
+    @Query("DELETE FROM OrderOutbox o WHERE o.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+
+}
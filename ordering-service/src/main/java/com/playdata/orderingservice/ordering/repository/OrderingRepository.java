@@ -2,18 +2,91 @@ package com.playdata.orderingservice.ordering.repository;
 
 import com.playdata.orderingservice.ordering.entity.OrderStatus;
 import com.playdata.orderingservice.ordering.entity.Ordering;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderingRepository extends JpaRepository<Ordering, Long> {
 
-    //    @Query("SELECT o FROM Ordering o WHERE o.userId = ?1")
-    List<Ordering> findByUserId(Long userId);
+    // 내 주문 목록 한 페이지 (커서 = 직전 페이지의 마지막 주문 id, 최신 주문부터)
+    // OFFSET 없이 id 인덱스로 바로 찾아가기 때문에 뒤쪽 페이지도 느려지지 않는다.
+    // 컬렉션 fetch join과 LIMIT을 같이 쓰면 메모리에서 페이징하게 되므로 상세는 @BatchSize로 따로 가져온다.
+    @Query("SELECT o FROM Ordering o " +
+            "WHERE o.userId = :userId AND (:cursor IS NULL OR o.id < :cursor) " +
+            "ORDER BY o.id DESC")
+    List<Ordering> findPageByUserId(@Param("userId") Long userId,
+                                    @Param("cursor") Long cursor,
+                                    Pageable pageable);
+
+    // 내 주문 목록 한 페이지의 상세를 한 번에 (페이지 조회와 따로 -> LIMIT 없이 fetch join)
+    @Query("SELECT DISTINCT o FROM Ordering o LEFT JOIN FETCH o.orderDetails " +
+            "WHERE o.id IN :ids ORDER BY o.id DESC")
+    List<Ordering> findWithOrderDetailsByIdIn(@Param("ids") List<Long> ids);
+
+    // 주문 취소처럼 주문 하나와 상세를 함께 써야 할 때
+    @EntityGraph(attributePaths = "orderDetails")
+    Optional<Ordering> findWithOrderDetailsById(Long id);
 
     // 쿼리메서드: list로 전달된 status 값 중에 하나라도 포함되어 있다면 조회 대상에 포함.
     List<Ordering> findByOrderStatusIn(List<OrderStatus> statuses);
 
+    // ---- 주문 재처리 스케줄러용 ----
+
+    // 재처리 후보 주문 id를 id 순서로 한 페이지씩 (keyset 페이징: OFFSET 없이 lastId 다음부터)
+    // 백오프 대기 중이거나 다른 인스턴스가 임대 중인 주문은 제외.
+    @Query("SELECT o.id FROM Ordering o " +
+            "WHERE o.orderStatus IN :statuses AND o.id > :lastId " +
+            "AND (o.nextAttemptAt IS NULL OR o.nextAttemptAt <= :now) " +
+            "AND (o.leaseUntil IS NULL OR o.leaseUntil < :now) " +
+            "ORDER BY o.id")
+    List<Long> findRetryCandidateIds(@Param("statuses") List<OrderStatus> statuses,
+                                     @Param("lastId") Long lastId,
+                                     @Param("now") LocalDateTime now,
+                                     Pageable pageable);
+
+    // 후보 주문에 임대 표시를 한 번의 UPDATE로. 조건을 다시 검사하므로
+    // 그 사이 다른 인스턴스가 먼저 가져간 주문은 표시되지 않는다.
+    @Modifying
+    @Query("UPDATE Ordering o SET o.leaseOwner = :owner, o.leaseUntil = :leaseUntil " +
+            "WHERE o.id IN :ids AND o.orderStatus IN :statuses " +
+            "AND (o.leaseUntil IS NULL OR o.leaseUntil < :now)")
+    int claimForRetry(@Param("ids") List<Long> ids,
+                      @Param("statuses") List<OrderStatus> statuses,
+                      @Param("owner") String owner,
+                      @Param("leaseUntil") LocalDateTime leaseUntil,
+                      @Param("now") LocalDateTime now);
+
+    // 이번에 임대에 성공한 주문만 주문 상세와 함께 조회
+    @EntityGraph(attributePaths = "orderDetails")
+    List<Ordering> findByLeaseOwnerOrderById(String leaseOwner);
+
+    // 아직 아무도 처리하고 있지 않은(임대 없음) 주문만 상태 변경 (주문 취소용)
+    // 재처리 스케줄러나 사가가 처리 중인 주문은 건드리지 않는다. -> 처리와 취소가 동시에 일어나도 둘 중 하나만 성공.
+    @Modifying
+    @Query("UPDATE Ordering o SET o.orderStatus = :newStatus " +
+            "WHERE o.id = :id AND o.orderStatus IN :statuses " +
+            "AND (o.leaseUntil IS NULL OR o.leaseUntil < :now)")
+    int changeStatusIfUnclaimed(@Param("id") Long id,
+                                @Param("statuses") List<OrderStatus> statuses,
+                                @Param("newStatus") OrderStatus newStatus,
+                                @Param("now") LocalDateTime now);
+
+    // 처리 결과를 저장하기 직전에 호출: 임대를 아직 이 작업자가 갖고 있고 그 사이 상태도 그대로일 때만 임대 해제.
+    // 0이면 임대가 만료돼서 다른 인스턴스가 가져갔거나 그 사이 취소된 것 -> 결과를 저장하면 안 된다.
+    // 같은 트랜잭션에서 저장까지 끝내므로, 커밋할 때까지 이 행은 잠겨 있어 다른 변경이 끼어들 수 없다.
+    @Modifying
+    @Query("UPDATE Ordering o SET o.leaseOwner = NULL, o.leaseUntil = NULL " +
+            "WHERE o.id = :id AND o.leaseOwner = :owner AND o.orderStatus = :claimedStatus")
+    int releaseLeaseIfOwner(@Param("id") Long id,
+                            @Param("owner") String owner,
+                            @Param("claimedStatus") OrderStatus claimedStatus);
+
 
 }
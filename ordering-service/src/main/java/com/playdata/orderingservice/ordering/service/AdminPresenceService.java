@@ -0,0 +1,112 @@
+package com.playdata.orderingservice.ordering.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/*
+관리자 SSE 연결이 어느 인스턴스에 붙어 있는지 Redis에 기록
+
+주문 알림은 모든 인스턴스가 각자의 임시 큐로 똑같이 받는다. (RabbitMQConfig 참고)
+관리자 한 명에게는 한 번만 보내야 한다.
+- 관리자가 다른 인스턴스로 재연결했는데 예전 인스턴스에 끊긴 줄 모르는 연결이 남아 있으면 두 번 받게 됨
+- sse:admin:owner:{이메일} = 마지막으로 연결을 받은 인스턴스 id -> 그 인스턴스만 전송
+- sse:admins (ZSET, 이메일 -> 만료 시각) = 전체 접속 관리자 목록 (모니터링/운영 확인용)
+
+연결 기록은 심장 박동 때마다 만료 시각을 연장하므로, 인스턴스가 죽으면 presence-ttl 뒤에 자연스럽게 사라진다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdminPresenceService {
+
+    private static final String OWNER_KEY_PREFIX = "sse:admin:owner:";
+    private static final String PRESENCE_KEY = "sse:admins";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    // 이 인스턴스를 구분하는 값 (재시작하면 새로 만들어짐)
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${ordering.sse.presence-ttl-ms:45000}")
+    private long presenceTtlMs;
+
+    // 새 연결을 받으면 이 인스턴스가 해당 관리자의 주인이 된다. (다른 인스턴스에 남은 예전 연결은 더 이상 전송 대상 아님)
+    public void register(String email) {
+        try {
+            redisTemplate.opsForValue().set(OWNER_KEY_PREFIX + email, instanceId, Duration.ofMillis(presenceTtlMs));
+            redisTemplate.opsForZSet().add(PRESENCE_KEY, email, System.currentTimeMillis() + presenceTtlMs);
+        } catch (Exception e) {
+            log.warn("관리자 연결 기록 실패: {} - {}", email, e.getMessage());
+        }
+    }
+
+    // 연결이 끊기면 기록 삭제. 이미 다른 인스턴스로 옮겨간 관리자라면 건드리지 않는다.
+    public void unregister(String email) {
+        try {
+            if (instanceId.equals(redisTemplate.opsForValue().get(OWNER_KEY_PREFIX + email))) {
+                redisTemplate.delete(OWNER_KEY_PREFIX + email);
+                redisTemplate.opsForZSet().remove(PRESENCE_KEY, email);
+            }
+        } catch (Exception e) {
+            log.warn("관리자 연결 기록 삭제 실패: {} - {}", email, e.getMessage());
+        }
+    }
+
+    // 이 인스턴스의 연결 중 실제로 이 인스턴스가 주인인 관리자만 골라낸다. (알림 전송 대상)
+    // 주인이 아닌 연결은 다른 인스턴스로 재연결한 관리자의 예전 연결 -> 호출한 쪽에서 정리.
+    // Redis가 응답하지 않으면 전부 전송 대상으로 본다. (중복 전송이 알림 누락보다 낫다)
+    public Set<String> ownedBy(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        List<String> orderedEmails = new ArrayList<>(emails);
+        try {
+            List<Object> owners = redisTemplate.opsForValue().multiGet(
+                    orderedEmails.stream().map(email -> OWNER_KEY_PREFIX + email).toList());
+            Set<String> owned = new HashSet<>();
+            for (int i = 0; i < orderedEmails.size(); i++) {
+                Object owner = owners == null ? null : owners.get(i);
+                // 기록이 만료된 경우(잠깐 Redis 장애 등)도 연결은 살아 있으므로 전송 대상
+                if (owner == null || instanceId.equals(owner)) {
+                    owned.add(orderedEmails.get(i));
+                }
+            }
+            return owned;
+        } catch (Exception e) {
+            log.warn("관리자 연결 기록 조회 실패, 이 인스턴스의 연결 전체에 전송: {}", e.getMessage());
+            return new HashSet<>(emails);
+        }
+    }
+
+    // 심장 박동 때 호출: 이 인스턴스가 주인인 관리자의 기록 만료 시각을 연장 (만료된 기록은 다시 차지)
+    // 리턴: 주인이 다른 인스턴스로 바뀐 관리자 (-> 이 인스턴스의 연결은 닫아야 함)
+    public Set<String> refresh(Collection<String> emails) {
+        Set<String> owned = ownedBy(emails);
+        Set<String> movedAway = new HashSet<>(emails);
+        movedAway.removeAll(owned);
+        try {
+            long expiresAt = System.currentTimeMillis() + presenceTtlMs;
+            for (String email : owned) {
+                redisTemplate.opsForValue().set(OWNER_KEY_PREFIX + email, instanceId, Duration.ofMillis(presenceTtlMs));
+                redisTemplate.opsForZSet().add(PRESENCE_KEY, email, expiresAt);
+            }
+            // 죽은 인스턴스가 남긴 만료된 기록 정리
+            redisTemplate.opsForZSet().removeRangeByScore(PRESENCE_KEY, 0, System.currentTimeMillis());
+        } catch (Exception e) {
+            log.warn("관리자 연결 기록 연장 실패: {}", e.getMessage());
+        }
+        return movedAway;
+    }
+
+}
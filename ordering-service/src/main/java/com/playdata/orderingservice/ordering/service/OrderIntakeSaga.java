@@ -0,0 +1,222 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.ordering.dto.OrderAcceptedEvent;
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.ordering.entity.OrderOutbox;
+import com.playdata.orderingservice.ordering.entity.OrderStatus;
+import com.playdata.orderingservice.ordering.entity.Ordering;
+import com.playdata.orderingservice.ordering.repository.OrderOutboxRepository;
+import com.playdata.orderingservice.ordering.repository.OrderingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/*
+비동기 주문 접수 (사가)
+
+동기 모드의 POST /order/create는 회원 확인 -> 재고 차감 -> 저장 -> 알림 접수까지 전부 끝나야 응답한다.
+user-service나 product-service가 느려지면 그 시간이 그대로 주문 응답 시간이 됨.
+
+비동기 모드에서는
+[접수] 주문을 ACCEPTED로 저장 + 처리 요청 메시지(order.saga.accepted)를 아웃박스에 같이 저장 -> 202 응답
+[1단계] 회원 확인 (토큰에 userId가 없을 때만 user-service 호출)
+[2단계] 재고 예약 (OrderingService.processOrderToProductService, 동기 모드와 같은 로직)
+[3단계] 주문 확정 + 관리자 알림 접수 (하나의 로컬 트랜잭션, OrderingService.saveLeasedResult)
+        -> 저장하지 못하면(오류, 임대를 잃음) 2단계에서 차감한 재고를 되돌린다 (보상: restoreStock)
+
+- 처리 결과: ORDERED / REJECTED(재고 부족) / PENDING_*(장애, OrderRetryScheduler가 재처리)
+- 클라이언트는 GET /order/{id}로 상태를 확인, 관리자는 주문이 확정되면 SSE(new-order)로 받는다.
+- 메시지 큐는 모든 인스턴스가 같이 구독하는 durable 큐 (주문 하나는 한 인스턴스만 처리하면 됨)
+- 같은 메시지가 다시 와도(아웃박스 재발송, 재배달) 임대(lease)를 먼저 잡은 쪽만 처리한다.
+- 처리 도중 인스턴스가 죽어서 ACCEPTED로 남은 주문은 stale-after 뒤에 OrderRetryScheduler가 가져가서
+  같은 단계(runSteps)로 이어서 처리.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderIntakeSaga {
+
+    public static final String ACCEPTED_ROUTING_KEY = "order.saga.accepted";
+
+    private final OrderingRepository orderingRepository;
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderingService orderingService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    // 이 인스턴스를 구분하는 값 (임대 표시에 사용)
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // 한 주문을 처리하는 동안 잡아두는 임대 시간 (원격 호출 타임아웃 합보다 넉넉하게)
+    @Value("${ordering.intake.saga.lease-seconds:60}")
+    private long leaseSeconds;
+
+    // 접수 후 이 시간이 지나도 ACCEPTED면 OrderRetryScheduler의 재처리 대상이 된다.
+    @Value("${ordering.intake.saga.stale-after-seconds:120}")
+    private long staleAfterSeconds;
+
+    // 주문 접수: 원격 호출 없이 DB 저장만 하고 바로 리턴
+    public Ordering accept(List<OrderingSaveReqDto> dtoList, TokenUserInfo userInfo) {
+        String dtoJson;
+        try {
+            dtoJson = objectMapper.writeValueAsString(dtoList);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("주문 내역을 읽을 수 없습니다.");
+        }
+
+        // 주문 상세는 재고 예약 단계에서 채워진다. (PENDING_USER_FAILURE 주문처럼 원본 요청 JSON만 보관)
+        Ordering ordering = Ordering.builder()
+                .userId(userInfo.getUserId()) // 토큰에 없으면 null -> 1단계에서 user-service로 확인
+                .userEmail(userInfo.getEmail())
+                .orderStatus(OrderStatus.ACCEPTED)
+                .originalRequestJson(dtoJson)
+                .orderDetails(new ArrayList<>())
+                .nextAttemptAt(LocalDateTime.now().plusSeconds(staleAfterSeconds))
+                .build();
+
+        // 주문 저장과 처리 요청 메시지를 같은 트랜잭션으로 -> 주문만 남고 메시지가 사라지는 일이 없다.
+        Ordering accepted = transactionTemplate.execute(status -> {
+            Ordering saved = orderingRepository.save(ordering);
+            try {
+                outboxRepository.save(OrderOutbox.builder()
+                        .orderId(saved.getId())
+                        .exchange("order.exchange")
+                        .routingKey(ACCEPTED_ROUTING_KEY)
+                        .payload(objectMapper.writeValueAsString(new OrderAcceptedEvent(saved.getId())))
+                        .payloadType(OrderAcceptedEvent.class.getName())
+                        .build());
+            } catch (JsonProcessingException e) {
+                // 알림과 달리 이 메시지가 없으면 주문이 진행되지 않으므로 접수 자체를 실패시킨다.
+                throw new IllegalStateException("주문 처리 요청 메시지 생성 실패", e);
+            }
+            return saved;
+        });
+        log.info("주문 접수 (비동기), orderId: {}, customer: {}", accepted.getId(), accepted.getUserEmail());
+        return accepted;
+    }
+
+    @RabbitListener(queues = "#{orderSagaQueue.name}",
+            concurrency = "${ordering.intake.saga.concurrency:4}")
+    public void onOrderAccepted(OrderAcceptedEvent event) {
+        Ordering order = claim(event.getOrderId());
+        if (order == null) {
+            // 이미 처리됐거나, 취소됐거나, 다른 인스턴스가 처리 중
+            log.info("사가 처리 대상 아님 (이미 처리/취소/처리 중): {}", event.getOrderId());
+            return;
+        }
+        String leaseOwner = order.getLeaseOwner();
+
+        runSteps(order);
+
+        // 3단계: 결과 저장 (주문 확정이면 관리자 알림 접수까지 하나의 로컬 트랜잭션)
+        boolean saved;
+        try {
+            saved = orderingService.saveLeasedResult(order, leaseOwner, OrderStatus.ACCEPTED);
+        } catch (Exception e) {
+            // 주문은 DB에 ACCEPTED + 임대 상태로 남아 있음 -> 임대와 stale-after가 지나면 재처리 스케줄러가 처음부터 다시.
+            log.error("주문 결과 저장 실패. 주문 ID: {}, {}", order.getId(), e.getMessage());
+            compensate(order);
+            return;
+        }
+        if (!saved) {
+            // 처리 도중 임대가 만료돼 재처리 스케줄러가 가져갔거나 그 사이 취소됨
+            log.warn("사가 결과 버림 (임대 만료 또는 그 사이 취소됨) - 주문 ID: {}", order.getId());
+            compensate(order);
+            return;
+        }
+
+        if (order.getOrderStatus() == OrderStatus.ORDERED) {
+            log.info("주문 확정 (비동기), orderId: {}", order.getId());
+        } else {
+            log.info("사가 처리 종료, 주문 ID: {}, 상태: {}", order.getId(), order.getOrderStatus());
+        }
+    }
+
+    /*
+    접수된 주문의 1~2단계 (회원 확인 -> 재고 예약). 결과는 주문 상태로 남고, 저장은 호출한 쪽에서 (saveLeasedResult)
+    - ORDERED: 재고 예약까지 완료
+    - REJECTED: 원본 주문 내역을 읽을 수 없거나 재고 부족 (줄 단위 방식에서 앞 줄이 차감한 재고는 되돌림)
+    - PENDING_*: 장애 -> 재처리 스케줄러가 이어서 처리
+    사가 리스너와, 처리 도중 멈춰서 ACCEPTED로 남은 주문을 가져간 재처리 스케줄러가 같이 사용. 예외는 던지지 않는다.
+     */
+    public void runSteps(Ordering order) {
+        List<OrderingSaveReqDto> dtoList;
+        try {
+            dtoList = objectMapper.readValue(order.getOriginalRequestJson(),
+                    new TypeReference<List<OrderingSaveReqDto>>() {
+                    });
+        } catch (JsonProcessingException e) {
+            log.error("원본 주문 내역 복원 실패, 주문 거절: {}", order.getId(), e);
+            order.updateStatus(OrderStatus.REJECTED);
+            return;
+        }
+
+        // 1단계: 회원 확인
+        if (order.getUserId() == null) {
+            try {
+                order.setUserId(orderingService.getUserResDto(order.getUserEmail()).getId());
+            } catch (Exception e) {
+                log.error("user-service 장애. 주문 보류로 처리합니다. 주문 ID: {}, {}", order.getId(), e.getMessage());
+                order.updateStatus(OrderStatus.PENDING_USER_FAILURE);
+                return;
+            }
+        }
+
+        // 2단계: 재고 예약. 장애면 PENDING_PROD_*로 바뀐다.
+        order.updateStatus(OrderStatus.ORDERED);
+        try {
+            orderingService.processOrderToProductService(dtoList, order.getUserId(), order);
+        } catch (IllegalArgumentException e) {
+            log.warn("재고 부족으로 주문 거절, 주문 ID: {}", order.getId());
+            orderingService.releasePartialReservation(order);
+            order.updateStatus(OrderStatus.REJECTED);
+            return;
+        } catch (Exception e) {
+            log.warn("재고 예약 중 오류, 주문 보류. 주문 ID: {}, {}", order.getId(), e.getMessage());
+            order.updateStatus(OrderStatus.PENDING_PROD_NOT_FOUND);
+            return;
+        }
+
+        if (order.getOrderStatus() != OrderStatus.ORDERED) {
+            log.info("주문 보류, 재처리 스케줄러로 넘깁니다. 주문 ID: {}, 상태: {}", order.getId(), order.getOrderStatus());
+        }
+    }
+
+    // 접수 상태인 주문에 임대 표시 후 가져온다. 못 잡았으면 null
+    private Ordering claim(Long orderId) {
+        String leaseOwner = instanceId + ":" + UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        List<Ordering> claimed = transactionTemplate.execute(status -> {
+            orderingRepository.claimForRetry(List.of(orderId), List.of(OrderStatus.ACCEPTED),
+                    leaseOwner, now.plusSeconds(leaseSeconds), now);
+            return orderingRepository.findByLeaseOwnerOrderById(leaseOwner);
+        });
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+
+    // 보상 트랜잭션: 결과를 저장하지 못했으니 이번 처리에서 차감한 재고를 되돌린다.
+    // 접수(ACCEPTED) 주문은 차감한 줄 없이 저장돼 있으므로 차감 표시된 줄 = 이번 처리에서 차감한 줄
+    // (확정 직전까지 간 주문뿐 아니라, 줄 단위 방식에서 일부 줄만 차감하고 보류된 주문도 해당)
+    private void compensate(Ordering order) {
+        try {
+            orderingService.restoreStock(order);
+            log.info("재고 예약 보상 완료, 주문 ID: {}", order.getId());
+        } catch (Exception e) {
+            // 여기서 실패하면 재고가 덜 남은 채로 남는다 -> 운영 확인이 필요하므로 error로 남김
+            log.error("재고 예약 보상 실패! 주문 ID: {}, {}", order.getId(), e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.ordering.dto.OrderNotificationDigest;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+주문 알림 몰림 구간 요약 (digest)
+
+세일 때는 1분에 수천 건의 new-order 이벤트가 관리자 화면으로 가서 브라우저가 그리다가 멈춘다.
+- 한 구간(window-ms) 안에서 앞의 immediate-per-window건까지는 평소처럼 바로 한 건씩 전송
+- 그 이후의 알림은 모아 두었다가 구간이 끝날 때 요약 알림 하나로 전송
+  (건수, 총 상품 수, 많이 팔린 상품, 주문 id 목록/범위)
+-> 한가할 때는 지금과 똑같이 즉시 한 건씩, 몰릴 때는 구간마다 요약 한 건.
+ */
+@Component
+public class OrderNotificationDigester {
+
+    // 구간이 끝날 때 보낼 요약 + 요약에 포함된 마지막 알림 id (SSE 이벤트 id로 사용 -> 이어 받기 기준)
+    public record Digest(OrderNotificationDigest digest, String lastEventId) {}
+
+    private final boolean enabled;
+    private final int immediatePerWindow;
+    private final int topProducts;
+    private final int maxOrderIds;
+
+    private final Counter immediateEvents;
+    private final Counter digestedEvents;
+    private final Counter digests;
+
+    // 현재 구간에 받은 알림 수와, 요약으로 보내려고 모아둔 알림 (둘 다 this 락 안에서만 변경)
+    private int receivedInWindow;
+    private List<OrderNotificationLog.Entry> buffer = new ArrayList<>();
+
+    public OrderNotificationDigester(MeterRegistry meterRegistry,
+                                     @Value("${ordering.sse.digest.enabled:true}") boolean enabled,
+                                     @Value("${ordering.sse.digest.immediate-per-window:5}") int immediatePerWindow,
+                                     @Value("${ordering.sse.digest.top-products:5}") int topProducts,
+                                     @Value("${ordering.sse.digest.max-order-ids:50}") int maxOrderIds) {
+        this.enabled = enabled;
+        this.immediatePerWindow = immediatePerWindow;
+        this.topProducts = topProducts;
+        this.maxOrderIds = maxOrderIds;
+
+        // ordering.sse.notifications{mode=immediate|digested}, ordering.sse.digests
+        this.immediateEvents = Counter.builder("ordering.sse.notifications")
+                .tag("mode", "immediate")
+                .description("한 건씩 바로 보낸 주문 알림 수")
+                .register(meterRegistry);
+        this.digestedEvents = Counter.builder("ordering.sse.notifications")
+                .tag("mode", "digested")
+                .description("요약 알림에 합쳐진 주문 알림 수")
+                .register(meterRegistry);
+        this.digests = Counter.builder("ordering.sse.digests")
+                .description("보낸 요약 알림 수")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 새로 받은 알림 중 바로 보낼 것만 돌려주고, 나머지는 구간이 끝날 때까지 모아 둔다.
+    public List<OrderNotificationLog.Entry> admit(List<OrderNotificationLog.Entry> entries) {
+        if (!enabled) {
+            immediateEvents.increment(entries.size());
+            return entries;
+        }
+        synchronized (this) {
+            int allowed = Math.max(0, immediatePerWindow - receivedInWindow);
+            receivedInWindow += entries.size();
+            if (entries.size() <= allowed && buffer.isEmpty()) {
+                immediateEvents.increment(entries.size());
+                return entries;
+            }
+            // 이미 요약으로 모으는 중이라면 순서가 뒤바뀌지 않도록 새 알림도 전부 요약으로
+            int immediate = buffer.isEmpty() ? allowed : 0;
+            buffer.addAll(entries.subList(immediate, entries.size()));
+            digestedEvents.increment(entries.size() - immediate);
+            immediateEvents.increment(immediate);
+            return entries.subList(0, immediate);
+        }
+    }
+
+    // 구간 종료: 모아둔 알림을 요약으로 만들어 돌려주고 구간을 새로 시작. 모아둔 것이 없으면 null
+    public Digest closeWindow() {
+        List<OrderNotificationLog.Entry> entries;
+        synchronized (this) {
+            receivedInWindow = 0;
+            if (buffer.isEmpty()) {
+                return null;
+            }
+            entries = buffer;
+            buffer = new ArrayList<>();
+        }
+        digests.increment();
+        return new Digest(summarize(entries), entries.get(entries.size() - 1).id());
+    }
+
+    // 재연결 시 놓친 알림이 많을 때도 같은 요약 형식을 사용
+    public boolean shouldSummarize(int count) {
+        return enabled && count > immediatePerWindow;
+    }
+
+    public OrderNotificationDigest summarize(List<OrderNotificationLog.Entry> entries) {
+        int totalItems = 0;
+        Map<Long, Integer> quantityByProduct = new HashMap<>();
+        List<Long> orderIds = new ArrayList<>();
+        Long firstOrderId = null;
+        Long lastOrderId = null;
+        LocalDateTime fromTime = null;
+        LocalDateTime toTime = null;
+
+        for (OrderNotificationLog.Entry entry : entries) {
+            OrderNotificationEvent event = entry.event();
+            totalItems += event.getTotalItems();
+            if (event.getOrderItems() != null) {
+                event.getOrderItems().forEach(item ->
+                        quantityByProduct.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+            }
+
+            Long orderId = event.getOrderId();
+            if (orderId != null) {
+                if (orderIds.size() < maxOrderIds) {
+                    orderIds.add(orderId);
+                }
+                firstOrderId = (firstOrderId == null) ? orderId : Math.min(firstOrderId, orderId);
+                lastOrderId = (lastOrderId == null) ? orderId : Math.max(lastOrderId, orderId);
+            }
+
+            LocalDateTime orderTime = event.getOrderTime();
+            if (orderTime != null) {
+                fromTime = (fromTime == null || orderTime.isBefore(fromTime)) ? orderTime : fromTime;
+                toTime = (toTime == null || orderTime.isAfter(toTime)) ? orderTime : toTime;
+            }
+        }
+
+        List<OrderNotificationDigest.ProductCount> top = quantityByProduct.entrySet().stream()
+                .filter(e -> Objects.nonNull(e.getKey()))
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(topProducts)
+                .map(e -> OrderNotificationDigest.ProductCount.builder()
+                        .productId(e.getKey())
+                        .quantity(e.getValue())
+                        .build())
+                .toList();
+
+        return OrderNotificationDigest.builder()
+                .orderCount(entries.size())
+                .totalItems(totalItems)
+                .topProducts(top)
+                .firstOrderId(firstOrderId)
+                .lastOrderId(lastOrderId)
+                .orderIds(orderIds)
+                .orderIdsTruncated(entries.size() > orderIds.size())
+                .fromTime(fromTime)
+                .toTime(toTime)
+                .build();
+    }
+
+}
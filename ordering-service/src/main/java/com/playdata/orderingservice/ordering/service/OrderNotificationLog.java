@@ -0,0 +1,182 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/*
+관리자 주문 알림 기록 (Redis 스트림 sse:notifications, 추가만 가능)
+
+예전에는 아무도 접속해 있지 않을 때 알림을 admin.pending.notifications 큐에 넣어두고,
+처음 접속한 관리자가 receiveAndConvert로 꺼내 갔다.
+-> 큐에서 꺼내면 사라지므로 첫 관리자만 받고, 잠깐 끊겼다 재연결한 관리자는 놓친 알림을 받을 방법이 없었음.
+
+인스턴스마다 메모리에 따로 기록하면 안 되는 이유:
+OrderOutboxRelay는 모든 인스턴스에서 돌고(SKIP LOCKED로 배치를 나눠 가짐) 채널도 따로 쓴다.
+-> 인스턴스마다 알림을 받는 순서가 다를 수 있고, 같은 Last-Event-ID라도 인스턴스마다 "그 다음"이 달라진다.
+
+그래서 순서는 한 곳(Redis 스트림)에서만 정한다.
+- 릴레이가 알림을 발행하기 전에 스트림에 추가 (append). 스트림 id가 곧 SSE 이벤트 id.
+  같은 아웃박스 행을 다시 보내도(재발송, 롤백 후 재시도) 처음 받은 스트림 id를 그대로 돌려준다.
+- RabbitMQ 메시지는 "새 알림이 있다"는 신호. 각 인스턴스는 스트림에서 자기가 마지막으로 읽은 위치 다음부터 읽는다 (readNew)
+  -> 모든 인스턴스가 같은 순서로 보내고, 어느 인스턴스로 재연결해도 같은 id 기준으로 이어 받는다 (since).
+- 스트림 id는 추가한 순서대로 커진다. 커밋이 늦은 주문도 추가된 시점의 id를 받으므로 이어 받기에서 빠지지 않는다.
+- 최근 capacity건만 보관. 그보다 오래 끊겨 있었다면 주문 목록 화면에서 확인.
+ */
+@Component
+@Slf4j
+public class OrderNotificationLog {
+
+    public record Entry(String id, OrderNotificationEvent event) {}
+
+    static final String STREAM_KEY = "sse:notifications";
+    private static final String OUTBOX_KEY_PREFIX = "sse:notifications:outbox:";
+    private static final Pattern STREAM_ID = Pattern.compile("\\d+-\\d+");
+
+    // 아웃박스 id마다 한 번만 추가 (이미 추가했다면 그때의 스트림 id)
+    private static final RedisScript<String> APPEND_SCRIPT = new DefaultRedisScript<>("""
+            local existing = redis.call('GET', KEYS[2])
+            if existing then
+                return existing
+            end
+            local id = redis.call('XADD', KEYS[1], 'MAXLEN', ARGV[1], '*', 'outboxId', ARGV[2], 'event', ARGV[3])
+            redis.call('SET', KEYS[2], id, 'PX', ARGV[4])
+            return id
+            """, String.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final long dedupTtlMs;
+    private final int readBatchSize;
+
+    // 이 인스턴스가 마지막으로 읽은 스트림 위치 (readNew에서만 변경)
+    private volatile String cursor;
+
+    public OrderNotificationLog(StringRedisTemplate redisTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${ordering.sse.log.capacity:1000}") int capacity,
+                                @Value("${ordering.sse.log.dedup-ttl-ms:86400000}") long dedupTtlMs,
+                                @Value("${ordering.sse.log.read-batch-size:500}") int readBatchSize) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.dedupTtlMs = dedupTtlMs;
+        this.readBatchSize = readBatchSize;
+        Gauge.builder("ordering.sse.log.size", this, OrderNotificationLog::size)
+                .description("재전송용으로 보관 중인 주문 알림 수")
+                .register(meterRegistry);
+    }
+
+    // 시작 시점 이후의 알림부터 실시간으로 보낸다. (그 전의 알림은 재연결/첫 접속 때 since로)
+    @PostConstruct
+    void initCursor() {
+        try {
+            List<MapRecord<String, Object, Object>> newest = redisTemplate.opsForStream()
+                    .reverseRange(STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+            cursor = (newest == null || newest.isEmpty()) ? "0-0" : newest.get(0).getId().getValue();
+        } catch (Exception e) {
+            // Redis가 아직 준비되지 않았다면 지금 시각 기준 (스트림 id의 앞부분은 밀리초 시각)
+            cursor = System.currentTimeMillis() + "-0";
+            log.warn("알림 기록 위치 조회 실패, 현재 시각부터 읽음: {}", e.getMessage());
+        }
+    }
+
+    // 알림 추가 (OrderOutboxRelay가 발행 전에 호출). 같은 아웃박스 id로 다시 호출하면 처음의 스트림 id를 돌려줌
+    public String append(long outboxId, OrderNotificationEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("알림 직렬화 실패: outboxId=" + outboxId, e);
+        }
+        return redisTemplate.execute(APPEND_SCRIPT,
+                List.of(STREAM_KEY, OUTBOX_KEY_PREFIX + outboxId),
+                String.valueOf(capacity), String.valueOf(outboxId), json, String.valueOf(dedupTtlMs));
+    }
+
+    // 이 인스턴스가 마지막으로 읽은 위치 다음의 알림들 (스트림 순서). 읽은 만큼 위치를 옮긴다.
+    public synchronized List<Entry> readNew() {
+        List<Entry> result = new ArrayList<>();
+        List<Entry> page;
+        do {
+            page = after(cursor, readBatchSize);
+            if (!page.isEmpty()) {
+                result.addAll(page);
+                cursor = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == readBatchSize);
+        return result;
+    }
+
+    // lastEventId 다음에 추가된 알림들 중 이 인스턴스가 이미 읽은 것까지 (스트림 순서)
+    // lastEventId가 없으면(처음 접속) 그중 가장 최근 limit건
+    // 아직 읽지 않은 알림은 다음 readNew로 실시간 전송되므로 여기서 보내면 중복 + 순서가 뒤바뀐다.
+    public List<Entry> since(String lastEventId, int limit) {
+        Range.Bound<String> readUpTo = Range.Bound.inclusive(cursor);
+        if (lastEventId == null) {
+            List<Entry> newestFirst = toEntries(redisTemplate.opsForStream()
+                    .reverseRange(STREAM_KEY, Range.leftUnbounded(readUpTo), Limit.limit().count(limit)));
+            Collections.reverse(newestFirst);
+            return newestFirst;
+        }
+        // 스트림에는 capacity건만 남아 있으므로 그보다 많이 돌려줄 일은 없다.
+        return toEntries(redisTemplate.opsForStream().range(STREAM_KEY,
+                Range.of(Range.Bound.exclusive(lastEventId), readUpTo), Limit.limit().count(capacity)));
+    }
+
+    // SSE 이벤트 id로 쓸 수 있는 스트림 id인지 (예전 숫자 id나 잘못된 값은 처음 접속처럼 처리)
+    public static boolean isEventId(String value) {
+        return value != null && STREAM_ID.matcher(value).matches();
+    }
+
+    public long size() {
+        try {
+            Long size = redisTemplate.opsForStream().size(STREAM_KEY);
+            return size == null ? 0 : size;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private List<Entry> after(String id, int count) {
+        return toEntries(redisTemplate.opsForStream()
+                .range(STREAM_KEY, Range.rightUnbounded(Range.Bound.exclusive(id)), Limit.limit().count(count)));
+    }
+
+    private List<Entry> toEntries(List<MapRecord<String, Object, Object>> records) {
+        List<Entry> entries = new ArrayList<>();
+        if (records == null) {
+            return entries;
+        }
+        for (MapRecord<String, Object, Object> record : records) {
+            Object json = record.getValue().get("event");
+            try {
+                entries.add(new Entry(record.getId().getValue(),
+                        objectMapper.readValue(String.valueOf(json), OrderNotificationEvent.class)));
+            } catch (JsonProcessingException e) {
+                log.warn("알림 기록 변환 실패, 건너뜀: {}", record.getId().getValue());
+            }
+        }
+        return entries;
+    }
+
+}
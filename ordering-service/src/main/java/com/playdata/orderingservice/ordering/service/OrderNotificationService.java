@@ -1,46 +1,59 @@
 package com.playdata.orderingservice.ordering.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import com.playdata.orderingservice.ordering.entity.OrderOutbox;
+import com.playdata.orderingservice.ordering.entity.OrderStatus;
 import com.playdata.orderingservice.ordering.entity.Ordering;
+import com.playdata.orderingservice.ordering.repository.OrderOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.AmqpException;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderNotificationService {
     /*
-    역할: "주문 정보를 받아서 RabbitMQ로 알림 메시지를 보내는 택배 기사"
+    역할: "주문 정보를 받아서 RabbitMQ로 보낼 알림 메시지를 아웃박스에 넣어두는 택배 접수처"
 
-    [OrderingService] → [OrderNotificationService] → [RabbitMQ] → [관리자]
-       (주문 완료!)           ("알림 보내드릴게요!")        (메시지 전달)   (알림 받음!)
+    [OrderingService] → [OrderNotificationService] → [order_outbox] → [OrderOutboxRelay] → [RabbitMQ] → [관리자]
+       (주문 완료!)         ("알림 접수했습니다!")      (주문과 함께 저장)     (모아서 발송)        (메시지 전달)   (알림 받음!)
+
+    예전에는 여기서 rabbitTemplate.convertAndSend를 바로 호출해서
+    주문 요청마다 브로커 왕복 시간을 기다려야 했고, 브로커가 느리면 주문 스레드도 같이 멈췄습니다.
      */
 
-    // 우리가 만든 exchange, queue로 메시지를 보낼 수 있게 해줌.
-    private final RabbitTemplate rabbitTemplate;
+    private final OrderOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
 
+    // 주문을 저장하는 트랜잭션 안에서 호출해야 합니다. (주문이 롤백되면 알림도 함께 사라지도록)
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendNewOrderNotification(Ordering ordering) {
+        // 주문 완료된 것만 알림 발송
+        if (ordering.getOrderStatus() != OrderStatus.ORDERED) {
+            return;
+        }
+
+        // 알림 전용 DTO 생성
+        OrderNotificationEvent event = OrderNotificationEvent.fromOrdering(ordering);
+
         try {
-            // 주문 완료된 것만 알림 발송
-            if (ordering.getOrderStatus().name().equals("ORDERED")) {
-                // 알림 전용 DTO 생성
-                OrderNotificationEvent event = OrderNotificationEvent.fromOrdering(ordering);
-
-                // RabbitMQ로 메시지 발송
-                rabbitTemplate.convertAndSend(
-                        "order.exchange", // RabbitMQConfig에서 만든 Exchange
-                        "order.created", // Routing Key (어느 큐로 보낼지 결정)
-                        event // 보낼 데이터 (JSON으로 자동 변환됨)
-                );
-
-                log.info("Order notification sent to admin: orderId={}, customer={}"
-                        , ordering.getId(), ordering.getUserEmail());
-            }
-        } catch (Exception e) {
-            log.error("Failed to send order notification to admin: orderId={}"
+            outboxRepository.save(OrderOutbox.builder()
+                    .orderId(ordering.getId())
+                    .exchange("order.exchange") // RabbitMQConfig에서 만든 Exchange
+                    .routingKey("order.created") // Routing Key (어느 큐로 보낼지 결정)
+                    .payload(objectMapper.writeValueAsString(event))
+                    .payloadType(OrderNotificationEvent.class.getName())
+                    .build());
+
+            log.info("Order notification queued for admin: orderId={}, customer={}"
+                    , ordering.getId(), ordering.getUserEmail());
+        } catch (JsonProcessingException e) {
+            log.error("Failed to queue order notification for admin: orderId={}"
                     , ordering.getId(), e);
             // 알림 실패해도 주문 처리는 계속 진행
             // 알림은 부가 기능이니까 실패해도 주문은 성공해야 함.
@@ -48,4 +61,4 @@ public class OrderNotificationService {
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,205 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import com.playdata.orderingservice.ordering.entity.OrderOutbox;
+import com.playdata.orderingservice.ordering.repository.OrderOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class OrderOutboxRelay {
+    /*
+    역할: "아웃박스 테이블에 쌓인 메시지를 모아서 RabbitMQ로 배달하는 집배원"
+
+    [OrderingService] → (주문과 같은 트랜잭션) → [order_outbox 테이블]
+    [OrderOutboxRelay] → 배치로 조회 → [RabbitMQ] → publisher confirm 확인 → 발송 완료 표시
+
+    mandatory 발행: 받아 줄 큐가 하나도 없는 메시지(unroutable)는 브로커가 confirm 전에 되돌려준다(return).
+    예) 관리자 알림 큐는 인스턴스별 임시 큐라서, 모든 인스턴스가 재시작 중이거나 브로커가 막 재시작돼서
+        큐가 아직 다시 만들어지지 않은 순간에는 order.created를 받을 큐가 없다.
+    -> 되돌아온 메시지는 발송 완료로 표시하지 않고 다음 주기에 다시 보낸다.
+       unroutable-give-up-ms가 지나도록 계속 되돌아오면(바인딩 자체가 없는 경우) 포기하고 완료 처리 + 경고 로그.
+
+    관리자 알림(OrderNotificationEvent)은 발행 전에 알림 기록(Redis 스트림)에 먼저 추가한다. (OrderNotificationLog 참고)
+    -> 릴레이가 여러 인스턴스에서 돌아도 알림 순서는 스트림 한 곳에서 정해진다.
+       기록에 실패한 알림은 이번 주기에는 보내지 않고 남겨 둔다. (다른 메시지는 그대로 발송)
+     */
+
+    private final OrderOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final OrderNotificationLog notificationLog;
+
+    @Value("${ordering.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${ordering.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${ordering.outbox.retention-days:3}")
+    private int retentionDays;
+
+    @Value("${ordering.outbox.unroutable-give-up-ms:600000}")
+    private long unroutableGiveUpMs;
+
+    @Scheduled(fixedDelayString = "${ordering.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        try {
+            int published;
+            // 한 배치가 가득 찼다면 아직 남은 메시지가 있다는 뜻 -> 다음 주기까지 기다리지 않고 이어서 발송
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published == batchSize);
+        } catch (Exception e) {
+            // 브로커 장애 등으로 실패하면 트랜잭션이 롤백되어 발송 완료 표시가 남지 않는다.
+            // -> 다음 주기에 같은 메시지를 다시 보냄 (최소 한 번 전달)
+            log.warn("아웃박스 메시지 발송 실패, 다음 주기에 재시도: {}", e.getMessage());
+        }
+    }
+
+    private int publishBatch() {
+        List<OrderOutbox> batch
+                = outboxRepository.findUnsentForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // 하나의 채널에서 배치 전체를 보낸 뒤, 브로커의 confirm을 한꺼번에 기다린다.
+        // 메시지마다 CorrelationData를 붙여서 confirm(ack/nack)과 return(unroutable)을 메시지 단위로 확인.
+        Map<OrderOutbox, CorrelationData> published = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        rabbitTemplate.invoke(operations -> {
+            for (OrderOutbox outbox : batch) {
+                Object body = toMessageBody(outbox);
+                if (body == null) {
+                    // 변환할 수 없는 메시지는 건너뛰고 발송 완료로 처리 (뒤의 메시지가 막히지 않도록)
+                    outbox.markSent(now);
+                    continue;
+                }
+                if (body instanceof OrderNotificationEvent event && !recordNotification(outbox, event)) {
+                    continue;
+                }
+                CorrelationData correlation = new CorrelationData(String.valueOf(outbox.getId()));
+                operations.convertAndSend(
+                        outbox.getExchange(),
+                        outbox.getRoutingKey(),
+                        body,
+                        message -> {
+                            // 아웃박스 id를 메시지 id로 -> 받는 쪽에서 중복 확인용으로 사용 가능
+                            message.getMessageProperties().setMessageId(String.valueOf(outbox.getId()));
+                            return message;
+                        },
+                        correlation
+                );
+                published.put(outbox, correlation);
+            }
+            return null;
+        });
+        // 알림 기록에 실패해서 보내지 않은 행 (발송 완료 표시 없이 남아 있음)
+        long notRecorded = batch.stream()
+                .filter(outbox -> outbox.getSentAt() == null && !published.containsKey(outbox))
+                .count();
+
+        // confirm이 시간 안에 오지 않거나 nack이면 예외 -> 롤백 -> 재발송
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        int returned = 0;
+        for (Map.Entry<OrderOutbox, CorrelationData> entry : published.entrySet()) {
+            OrderOutbox outbox = entry.getKey();
+            CorrelationData correlation = entry.getValue();
+            CorrelationData.Confirm confirm = awaitConfirm(correlation, deadline);
+            if (!confirm.isAck()) {
+                throw new AmqpException("브로커가 메시지를 거부(nack): id=" + outbox.getId() + ", " + confirm.getReason());
+            }
+            // return은 confirm보다 먼저 도착하므로 여기서는 이미 채워져 있다.
+            if (correlation.getReturned() != null) {
+                returned++;
+                if (givesUp(outbox, now)) {
+                    log.warn("받을 큐가 없는 메시지 재발송 포기: id={}, routingKey={}",
+                            outbox.getId(), outbox.getRoutingKey());
+                    outbox.markSent(now);
+                }
+                continue;
+            }
+            outbox.markSent(now); // 더티 체킹으로 UPDATE
+        }
+
+        if (returned > 0) {
+            log.warn("받을 큐가 없어서 되돌아온 메시지 {}건, 다음 주기에 재발송", returned);
+        }
+        if (notRecorded > 0) {
+            log.warn("알림 기록에 실패해서 보내지 않은 메시지 {}건, 다음 주기에 재발송", notRecorded);
+        }
+        log.info("아웃박스 메시지 {}건 발송 완료 (id {} ~ {})"
+                , batch.size() - returned - notRecorded, batch.get(0).getId(), batch.get(batch.size() - 1).getId());
+        // 되돌아오거나 보내지 못한 메시지가 있으면 이번 주기는 여기까지 (바로 이어서 돌면 같은 메시지를 또 보내게 됨)
+        return returned > 0 || notRecorded > 0 ? 0 : batch.size();
+    }
+
+    // 관리자 알림을 공유 기록(Redis 스트림)에 추가. 실패하면 false -> 이번 주기에는 발행하지 않는다.
+    private boolean recordNotification(OrderOutbox outbox, OrderNotificationEvent event) {
+        try {
+            notificationLog.append(outbox.getId(), event);
+            return true;
+        } catch (Exception e) {
+            log.warn("알림 기록 실패, 발행 보류: id={} - {}", outbox.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private CorrelationData.Confirm awaitConfirm(CorrelationData correlation, long deadline) {
+        try {
+            return correlation.getFuture().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("confirm 대기 중 중단", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("confirm을 받지 못함: id=" + correlation.getId(), e);
+        }
+    }
+
+    private boolean givesUp(OrderOutbox outbox, LocalDateTime now) {
+        return outbox.getCreatedAt() != null
+                && outbox.getCreatedAt().plus(Duration.ofMillis(unroutableGiveUpMs)).isBefore(now);
+    }
+
+    // 저장해 둔 JSON을 원래 타입의 객체로 되돌린다.
+    // 객체로 보내야 Jackson2JsonMessageConverter가 타입 정보(__TypeId__)를 헤더에 실어 준다.
+    private Object toMessageBody(OrderOutbox outbox) {
+        try {
+            return objectMapper.readValue(outbox.getPayload(), Class.forName(outbox.getPayloadType()));
+        } catch (Exception e) {
+            log.error("아웃박스 메시지 변환 실패, 발송하지 않음: id={}", outbox.getId(), e);
+            return null;
+        }
+    }
+
+    // 발송 완료된 지 오래된 행 정리 (1시간마다)
+    @Scheduled(fixedDelay = 3_600_000)
+    public void purgeSent() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("발송 완료된 아웃박스 메시지 {}건 정리", deleted);
+    }
+
+}
@@ -2,30 +2,83 @@ package com.playdata.orderingservice.ordering.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.playdata.orderingservice.common.auth.Role;
-import com.playdata.orderingservice.common.auth.TokenUserInfo;
 import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
 import com.playdata.orderingservice.ordering.dto.UserResDto;
+import com.playdata.orderingservice.ordering.entity.OrderDetail;
 import com.playdata.orderingservice.ordering.entity.OrderStatus;
 import com.playdata.orderingservice.ordering.entity.Ordering;
 import com.playdata.orderingservice.ordering.repository.OrderingRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 
+/*
+보류(PENDING_*) 주문 재처리 스케줄러
+
+예전에는 보류 주문 전체를 한 번에 메모리로 올려서 하나씩 순서대로 재처리했고,
+ordering-service 인스턴스마다 똑같은 주문을 동시에 재처리했습니다.
+장애 복구 직후 보류 주문이 수만 건이면 힙이 터지고, 막 살아난 서비스에 요청이 폭주하죠.
+
+- 후보 주문을 id 순서로 한 페이지씩만 조회 (keyset 페이징)
+- 임대(lease) 표시에 성공한 주문만 재처리 -> 주문 하나는 인스턴스 하나만 처리
+- 실패하면 retryCount를 올리고 다음 시도 시간을 점점 늦춘다 (지수 백오프)
+- 제한된 워커 풀에서 병렬로 재처리
+- 관련 서킷 브레이커가 OPEN이면 이번 주기는 건너뜀 (아직 복구되지 않은 서비스를 두드리지 않도록)
+- 결과는 임대를 아직 갖고 있을 때만 저장 (처리 도중 임대가 만료돼 다른 인스턴스가 가져갔거나 취소된 주문을 덮어쓰지 않도록)
+- 재고 부족은 재시도해도 같으므로 보류가 아니라 REJECTED로 끝낸다.
+- 비동기 접수 후 사가 처리 도중 멈춰서 ACCEPTED로 남은 주문은 사가의 단계(OrderIntakeSaga.runSteps)로 이어서 처리.
+ */
 @Slf4j
 @RequiredArgsConstructor
 @Component
-@Transactional
 public class OrderRetryScheduler {
 
+    private static final List<OrderStatus> PRODUCT_PENDING_STATUSES = List.of(
+            OrderStatus.PENDING_PROD_NOT_FOUND,
+            OrderStatus.PENDING_PROD_STOCK_UPDATE
+    );
+
     private final OrderingRepository orderingRepository;
     private final ObjectMapper objectMapper;
     private final OrderingService orderingService;
+    private final TransactionTemplate transactionTemplate;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final OrderIntakeSaga orderIntakeSaga;
+
+    // 재처리 워커 풀 (AsyncConfig)
+    private final Executor orderRetryExecutor;
+
+    // 이 인스턴스를 구분하는 값 (임대 표시에 사용)
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${ordering.retry.page-size:100}")
+    private int pageSize;
+
+    @Value("${ordering.retry.max-per-cycle:2000}")
+    private int maxPerCycle;
+
+    @Value("${ordering.retry.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${ordering.retry.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${ordering.retry.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
 
     // 특정 작업에 대해 지정된 기간, 시간에 동작하도록 설계하는 spring의 기능.
     // 5분마다 실행
@@ -33,50 +86,171 @@ public class OrderRetryScheduler {
     public void retryPendingOrders() {
         log.info("주문 재처리 스케줄러 시작");
 
-        // DB에서 주문 보류인 엔터티를 전부 조회해서 재처리 대상으로 지정.
-        List<Ordering> pendingOrders = orderingRepository.findByOrderStatusIn(List.of(
-                OrderStatus.PENDING_USER_FAILURE,
-                OrderStatus.PENDING_PROD_NOT_FOUND,
-                OrderStatus.PENDING_PROD_STOCK_UPDATE
-        ));
+        List<OrderStatus> statuses = retryableStatuses();
+        if (statuses.isEmpty()) {
+            log.info("관련 서킷 브레이커 OPEN - 이번 재처리 주기는 건너뜁니다.");
+            return;
+        }
+
+        long lastId = 0L;
+        int processed = 0;
 
-        for (Ordering order : pendingOrders) {
-            try {
-                log.info("재처리 시도 - 주문 ID: {}", order.getId());
+        while (processed < maxPerCycle) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> candidateIds = orderingRepository.findRetryCandidateIds(
+                    statuses, lastId, now, PageRequest.of(0, pageSize));
+            if (candidateIds.isEmpty()) {
+                break;
+            }
+            lastId = candidateIds.get(candidateIds.size() - 1);
 
-                // originalRequestJson → dtoList 복원
-                // 주문 재처리를 위해 원본 주문 요청 당시의 상품 내역을 받아오자 (json을 자바 list로)
-                List<OrderingSaveReqDto> dtoList = objectMapper.readValue(
-                        order.getOriginalRequestJson(),
-                        new TypeReference<List<OrderingSaveReqDto>>() {
-                        }
-                );
-                log.info("변환된 dtoList: {}", dtoList);
+            List<Ordering> claimed = claim(candidateIds, statuses, now);
+            log.info("재처리 대상 {}건 중 {}건 임대 성공", candidateIds.size(), claimed.size());
 
-                // 재처리 (주문 status가 무엇이냐에 따라 분기가 나누어져야 할 것 같아요)
-                if (order.getOrderStatus() == OrderStatus.PENDING_USER_FAILURE) {
-                    UserResDto userResDto
-                            = orderingService.getUserResDto(order.getUserEmail());
-                    order.setUserId(userResDto.getId());
-                }
+            // 한 페이지를 워커 풀에서 병렬로 처리하고, 다 끝나면 다음 페이지로 (메모리에는 한 페이지만)
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (Ordering order : claimed) {
+                futures.add(CompletableFuture.runAsync(() -> retryOrder(order), orderRetryExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
 
-                orderingService.processOrderToProductService(dtoList, order.getUserId(), order);
+            processed += claimed.size();
+        }
 
-                // 성공했으면 상태 업데이트
-                order.updateStatus(OrderStatus.ORDERED);
-                orderingRepository.save(order);
+        log.info("⏹ 주문 재처리 스케줄러 종료 - 처리 건수: {}", processed);
+    }
 
-                log.info("재처리 성공 - 주문 ID: {}", order.getId());
+    // 서킷 브레이커 상태를 보고 이번 주기에 재처리할 상태 목록을 정한다.
+    // 보류 원인과 상관없이 결국 product-service는 거쳐야 하니, product 쪽이 OPEN이면 전부 건너뜀.
+    private List<OrderStatus> retryableStatuses() {
+        if (isOpen("productService") || isOpen("productServiceUpdate")) {
+            return List.of();
+        }
+        List<OrderStatus> statuses = new ArrayList<>(PRODUCT_PENDING_STATUSES);
+        // 비동기 접수 후 stale-after가 지나도록 ACCEPTED로 남은 주문 (사가 처리 중 인스턴스 장애 등)
+        statuses.add(OrderStatus.ACCEPTED);
+        if (!isOpen("userService")) {
+            statuses.add(OrderStatus.PENDING_USER_FAILURE);
+        }
+        return statuses;
+    }
+
+    private boolean isOpen(String circuitBreakerName) {
+        return circuitBreakerRegistry.find(circuitBreakerName)
+                .map(circuitBreaker -> circuitBreaker.getState() == CircuitBreaker.State.OPEN)
+                .orElse(false);
+    }
 
+    // 후보 주문에 임대 표시 후, 실제로 표시된 주문만 주문 상세와 함께 가져온다.
+    private List<Ordering> claim(List<Long> candidateIds, List<OrderStatus> statuses, LocalDateTime now) {
+        String leaseOwner = instanceId + ":" + UUID.randomUUID();
+        return transactionTemplate.execute(status -> {
+            orderingRepository.claimForRetry(
+                    candidateIds, statuses, leaseOwner, now.plusSeconds(leaseSeconds), now);
+            return orderingRepository.findByLeaseOwnerOrderById(leaseOwner);
+        });
+    }
+
+    // 주문 하나 재처리 (워커 스레드에서 실행, 원격 호출 동안 트랜잭션 없음)
+    private void retryOrder(Ordering order) {
+        // 결과를 저장할 때 임대를 아직 갖고 있는지 확인하기 위해 기억해 둔다.
+        String leaseOwner = order.getLeaseOwner();
+        OrderStatus claimedStatus = order.getOrderStatus();
+        log.info("재처리 시도 - 주문 ID: {}, 상태: {}, 시도 횟수: {}",
+                order.getId(), claimedStatus, order.getRetryCount() + 1);
+        // 이전 시도에서 이미 재고를 가져간 줄 (임대를 잃으면 이번 시도에서 차감한 줄만 되돌리기 위해 기억)
+        List<OrderDetail> deductedBefore = order.getOrderDetails().stream()
+                .filter(OrderDetail::isStockDeducted)
+                .toList();
+
+        if (claimedStatus == OrderStatus.ACCEPTED) {
+            // 사가 처리 도중 멈춘 비동기 접수 주문 -> 사가의 단계를 그대로 이어서 (회원 확인, 재고 예약, 재고 부족 시 보상)
+            orderIntakeSaga.runSteps(order);
+        } else {
+            retrySteps(order);
+        }
+
+        saveResult(order, leaseOwner, claimedStatus, deductedBefore);
+    }
+
+    // 보류 주문 재처리: 회원 확인(필요하면) -> 재고 예약
+    private void retrySteps(Ordering order) {
+        try {
+            // originalRequestJson → dtoList 복원
+            // 주문 재처리를 위해 원본 주문 요청 당시의 상품 내역을 받아오자 (json을 자바 list로)
+            List<OrderingSaveReqDto> dtoList = objectMapper.readValue(
+                    order.getOriginalRequestJson(),
+                    new TypeReference<List<OrderingSaveReqDto>>() {
+                    }
+            );
+            log.info("변환된 dtoList: {}", dtoList);
+
+            // 재처리 (주문 status가 무엇이냐에 따라 분기가 나누어져야 할 것 같아요)
+            if (order.getUserId() == null) {
+                UserResDto userResDto
+                        = orderingService.getUserResDto(order.getUserEmail());
+                order.setUserId(userResDto.getId());
+            }
+
+            // 이번에 문제가 없으면 주문 완료. product 쪽에서 또 실패하면 PENDING_PROD_*로 다시 바뀐다.
+            order.updateStatus(OrderStatus.ORDERED);
+            orderingService.processOrderToProductService(dtoList, order.getUserId(), order);
+
+        } catch (IllegalArgumentException e) {
+            // 재고 부족 -> 장애가 아니라서 다시 시도해도 결과가 같다. 보류가 아니라 최종 상태(REJECTED)로.
+            log.warn("재처리 중 재고 부족, 주문 거절 - 주문 ID: {}", order.getId());
+            orderingService.releasePartialReservation(order);
+            order.updateStatus(OrderStatus.REJECTED);
+        } catch (Exception e) {
+            log.warn("재처리 실패 - 주문 ID: {}, 이유: {}", order.getId(), e.getMessage());
+            // 처리 도중 ORDERED로 바꿔 놓았을 수 있으니 재처리 대상 상태로 되돌림
+            if (order.getOrderStatus() == OrderStatus.ORDERED) {
+                order.updateStatus(order.getUserId() == null
+                        ? OrderStatus.PENDING_USER_FAILURE
+                        : OrderStatus.PENDING_PROD_NOT_FOUND);
+            }
+        }
+    }
+
+    // 보류로 끝났으면 다음 시도 시간을 정하고, 임대를 아직 갖고 있을 때만 결과 저장
+    private void saveResult(Ordering order, String leaseOwner, OrderStatus claimedStatus,
+                            List<OrderDetail> deductedBefore) {
+        boolean pending = order.getOrderStatus() != OrderStatus.ORDERED
+                && order.getOrderStatus() != OrderStatus.REJECTED;
+        LocalDateTime nextAttemptAt = null;
+        if (pending) {
+            nextAttemptAt = LocalDateTime.now().plusSeconds(backoffSeconds(order.getRetryCount()));
+            order.scheduleRetry(nextAttemptAt);
+        }
+
+        // 임대를 아직 갖고 있을 때만 결과 저장 (그 사이 취소됐거나, 임대가 만료돼 다른 인스턴스가 가져갔다면 저장 안 함)
+        if (!orderingService.saveLeasedResult(order, leaseOwner, claimedStatus)) {
+            log.warn("재처리 결과 버림 (임대 만료 또는 그 사이 취소됨) - 주문 ID: {}", order.getId());
+            // 이번 재처리에서 차감한 줄은 되돌린다. (저장된 결과가 없으니 차감도 없던 일로)
+            // 이전 시도에서 차감한 줄은 DB에 표시돼 있으니 주문을 가져간 쪽(취소, 다른 인스턴스)이 처리한다.
+            try {
+                orderingService.restoreStock(order.getOrderDetails().stream()
+                        .filter(detail -> !deductedBefore.contains(detail))
+                        .toList());
             } catch (Exception e) {
-                log.warn("재처리 실패 - 주문 ID: {}, 이유: {}", order.getId(), e.getMessage());
-                e.printStackTrace();
-                // 재시도 실패 → 그대로 놔두고 다음번 스케줄링까지 보류
-                // 또는 retryCount 등 정책 추가 고려 가능
+                log.error("재고 되돌리기 실패! 주문 ID: {}, {}", order.getId(), e.getMessage());
             }
+            return;
         }
 
-        log.info("⏹ 주문 재처리 스케줄러 종료");
+        if (pending) {
+            log.info("재처리 보류 - 주문 ID: {}, 다음 시도: {}", order.getId(), nextAttemptAt);
+        } else {
+            log.info("재처리 완료 - 주문 ID: {}, 상태: {}", order.getId(), order.getOrderStatus());
+        }
+    }
+
+    // 30초, 1분, 2분, 4분 ... 최대 1시간. 여러 주문이 같은 시각에 몰리지 않도록 ±20% 흔들어 준다.
+    private long backoffSeconds(int retryCount) {
+        long delay = backoffBaseSeconds << Math.min(retryCount, 20);
+        delay = Math.min(delay, backoffMaxSeconds);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Math.max(1L, (long) (delay * jitter));
     }
 
 }
@@ -2,37 +2,56 @@ package com.playdata.orderingservice.ordering.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playdata.orderingservice.client.ProductServiceAsyncClient;
 import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.client.UserServiceAsyncClient;
 import com.playdata.orderingservice.client.UserServiceClient;
+import com.playdata.orderingservice.common.auth.Role;
 import com.playdata.orderingservice.common.auth.TokenUserInfo;
 import com.playdata.orderingservice.common.dto.CommonResDto;
+import com.playdata.orderingservice.common.hedging.HedgingExecutor;
+import com.playdata.orderingservice.common.limiter.AdaptiveConcurrencyLimiter;
 import com.playdata.orderingservice.ordering.controller.SseController;
 import com.playdata.orderingservice.ordering.dto.OrderingListResDto;
+import com.playdata.orderingservice.ordering.dto.OrderingPageResDto;
 import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.ordering.dto.ProductReserveResDto;
 import com.playdata.orderingservice.ordering.dto.ProductResDto;
 import com.playdata.orderingservice.ordering.dto.UserResDto;
 import com.playdata.orderingservice.ordering.entity.OrderDetail;
 import com.playdata.orderingservice.ordering.entity.OrderStatus;
 import com.playdata.orderingservice.ordering.entity.Ordering;
 import com.playdata.orderingservice.ordering.repository.OrderingRepository;
+import feign.FeignException;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.ws.rs.ServiceUnavailableException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
+/*
+클래스 전체에 @Transactional을 걸지 않습니다.
+주문 흐름의 대부분은 user-service, product-service를 기다리는 시간인데,
+트랜잭션이 열려 있으면 그동안 DB 커넥션(Hikari)도 계속 붙잡고 있게 됩니다.
+원격 호출은 트랜잭션 없이 실행하고, DB 저장은 repository의 save(자체 트랜잭션)로 짧게 끝냅니다.
+ */
 @Service
-@Transactional
 @Slf4j
 @RequiredArgsConstructor
 public class OrderingService {
@@ -40,6 +59,7 @@ public class OrderingService {
     private final OrderingRepository orderingRepository;
     private final RestTemplate restTemplate;
     private final OrderNotificationService orderNotificationService;
+    private final TransactionTemplate transactionTemplate;
 
     // feign client 구현체 주입 받기
     private final UserServiceClient userServiceClient;
@@ -47,20 +67,83 @@ public class OrderingService {
 
     // CircuitBreaker 동작 객체 주입
     private final CircuitBreakerFactory circuitBreakerFactory;
+    private final ProductInfoCache productInfoCache;
+
+    // 서킷 브레이커는 호출마다 만들지 않고 한 번 만들어서 재사용.
+    // resilience4j-bulkhead가 있으므로 같은 이름의 bulkhead(동시 호출 수 제한)도 함께 적용된다.
+    private CircuitBreaker userCircuit;
+    private CircuitBreaker productCircuit;
+    private CircuitBreaker productUpdateCircuit;
+
+    // product-service로 나가는 호출의 동시 호출 수 제한 (응답 시간에 따라 한도가 자동 조절됨)
+    // 한도를 넘은 호출은 보내지 않고 바로 실패 -> 아래 catch 블록에서 주문 보류(PENDING_PROD_*)로 처리.
+    private final AdaptiveConcurrencyLimiter productServiceLimiter;
+
+    // 헤징이 켜져 있으면 단건 상품 조회도 논블로킹 클라이언트로 보낸다. (느린 인스턴스를 만나면 한 번 더 요청)
+    private final HedgingExecutor productServiceHedger;
+
+    // 같은 상품을 동시에 조회하는 주문끼리 조회 요청 하나를 같이 사용 (논블로킹 클라이언트 위에서 동작)
+    private final ProductLookupCoalescer productLookupCoalescer;
+
+    // 논블로킹 클라이언트 (응답을 기다리는 동안 스레드를 점유하지 않음)
+    // user 조회와 상품 조회를 동시에 보낼 때 사용
+    private final UserServiceAsyncClient userServiceAsyncClient;
+    private final ProductServiceAsyncClient productServiceAsyncClient;
+
+    // true: 주문 상세 전체를 /product/reserve 한 번으로 처리
+    // false: 예전처럼 주문 줄마다 조회 + 차감 요청 (product-service가 아직 reserve를 지원하지 않을 때)
+    @Value("${ordering.product.batch-reserve:true}")
+    private boolean batchReserve;
+
+    // 줄 단위 처리 방식에서 상품 조회를 한 줄씩 기다리지 않고 한꺼번에 동시에 보낼지 여부
+    @Value("${ordering.product.parallel-lookup:false}")
+    private boolean parallelLookup;
+
+    // 내 주문 목록 한 페이지의 최대 크기
+    @Value("${ordering.my-order.max-page-size:100}")
+    private int maxPageSize;
+
+    // 토큰(X-User-Id 헤더)에 userId가 있으면 그대로 사용하고, user-service는 호출하지 않는다.
+    // userId 클레임이 생기기 전에 발급된 토큰일 때만 이메일로 user-service에 물어본다.
+    private Long resolveUserId(TokenUserInfo userInfo) {
+        if (userInfo.getUserId() != null) {
+            return userInfo.getUserId();
+        }
+        UserResDto userDto = getUserResDto(userInfo.getEmail());
+        log.info("user-service로부터 전달받은 결과: {}", userDto);
+        return userDto.getId();
+    }
+
+    // resolveUserId의 비동기 버전. 요청만 보내 놓고 바로 리턴 -> 그동안 상품 조회를 같이 진행할 수 있다.
+    private CompletableFuture<Long> resolveUserIdAsync(TokenUserInfo userInfo) {
+        if (userInfo.getUserId() != null) {
+            return CompletableFuture.completedFuture(userInfo.getUserId());
+        }
+        return userServiceAsyncClient.findByEmail(userInfo.getEmail())
+                .thenApply(userDto -> {
+                    log.info("user-service로부터 전달받은 결과: {}", userDto);
+                    return userDto.getId();
+                });
+    }
 
     public Ordering createOrder(List<OrderingSaveReqDto> dtoList,
             TokenUserInfo userInfo) {
-        UserResDto userDto;
         Ordering ordering;
 
+        // 회원 조회를 먼저 보내 놓고, 줄 단위 처리 모드라면 상품 조회도 동시에 출발시킨다.
+        // 지연 시간: (회원 조회 + 상품 조회) -> 둘 중 느린 쪽
+        // 재고 차감(쓰기)은 회원이 확인된 뒤에만! 회원 조회가 실패하면 주문이 보류되고 재처리 때 다시 차감하기 때문.
+        CompletableFuture<Long> userIdFuture = resolveUserIdAsync(userInfo);
+        List<CompletableFuture<ProductResDto>> lookups
+                = (!batchReserve && parallelLookup) ? lookupProductsConcurrently(dtoList) : null;
+
         try {
-            userDto = getUserResDto(userInfo.getEmail());
-            log.info("user-service로부터 전달받은 결과: {}", userDto);
+            Long userId = userIdFuture.join();
 
             // Ordering(주문) 객체 생성
             ordering = Ordering.builder()
-                    .userId(userDto.getId())
-                    .userEmail(userDto.getEmail())
+                    .userId(userId)
+                    .userEmail(userInfo.getEmail())
                     .orderDetails(new ArrayList<>()) // 아직 주문 상세 들어가기 전.
                     .build();
 
@@ -105,21 +188,36 @@ public class OrderingService {
         }
 
         // product쪽에 요청 보내는 로직은 따로 메서드로 나누었습니다. (너무 길어서...)
-        processOrderToProductService(dtoList, userDto.getId(), ordering);
+        try {
+            processOrderToProductService(dtoList, ordering, lookups);
+        } catch (IllegalArgumentException e) {
+            // 재고 부족 등으로 주문 불가 -> 줄 단위 방식이라면 앞 줄에서 이미 차감한 재고를 돌려놓고 클라이언트 예외로
+            releasePartialReservation(ordering);
+            throw e;
+        }
 
         // 모든 로직에 장애가 없었다면 주문 확정(status가 ORDERED로 처리)
-        Ordering savedOrdering = orderingRepository.save(ordering);
-
-        // 주문 완료 알림 발송
-        orderNotificationService.sendNewOrderNotification(savedOrdering);
-        log.info("order notification sent successfully, orderId: {}", savedOrdering.getId());
+        // 주문 저장과 알림(아웃박스) 저장은 하나의 짧은 트랜잭션으로 묶는다.
+        Ordering savedOrdering = transactionTemplate.execute(status -> {
+            Ordering saved = orderingRepository.save(ordering);
+            // 주문 완료 알림 접수 (실제 발송은 OrderOutboxRelay가 비동기로)
+            orderNotificationService.sendNewOrderNotification(saved);
+            return saved;
+        });
+        log.info("order notification queued, orderId: {}", savedOrdering.getId());
 
         return savedOrdering;
     }
 
+    @PostConstruct
+    void initCircuitBreakers() {
+        userCircuit = circuitBreakerFactory.create("userService");
+        productCircuit = circuitBreakerFactory.create("productService");
+        productUpdateCircuit = circuitBreakerFactory.create("productServiceUpdate");
+    }
+
     public UserResDto getUserResDto(String email) {
-        // 서킷 브레이커 적용하기
-        CircuitBreaker userCircuit = circuitBreakerFactory.create("userService");
+        // 서킷 브레이커 적용하기 (userCircuit)
 
         // Ordering 객체를 생성하기 위해 회원 정보를 얻어오자.
         // 우리가 가진 유일한 정보는 토큰 안에 들어있던 이메일 뿐입니다...
@@ -141,18 +239,118 @@ public class OrderingService {
     public void processOrderToProductService(List<OrderingSaveReqDto> dtoList,
                                              Long userId,
                                              Ordering ordering
+    ) {
+        processOrderToProductService(dtoList, ordering, null);
+    }
+
+    // lookups: 미리 출발시켜 둔 상품 조회 (없으면 null)
+    private void processOrderToProductService(List<OrderingSaveReqDto> dtoList,
+                                              Ordering ordering,
+                                              List<CompletableFuture<ProductResDto>> lookups
     ) {
         log.info("주문 객체 ID: {}", ordering.getId());
         log.info("주문 상태: {}", ordering.getOrderStatus());
 
+        // 주문 상세는 요청 받은 줄 그대로 한 번만 추가 (재처리 때 같은 상세가 또 들어가지 않도록)
+        // 순서도 원본 요청과 같다 -> i번째 상세 = i번째 주문 줄. 줄마다 재고를 가져갔는지는 상세에 표시(stockDeducted)
+        if (ordering.getOrderDetails().isEmpty()) {
+            dtoList.forEach(dto -> ordering.getOrderDetails().add(toOrderDetail(dto, ordering)));
+        }
+
+        if (batchReserve) {
+            reserveStock(dtoList, ordering);
+        } else {
+            processOrderLineByLine(dtoList, ordering, lookups);
+        }
+
+        // 저장은 호출한 쪽(createOrder, OrderRetryScheduler)에서 결과 상태를 보고 한 번만.
+        log.info("마지막 ordering: {}, 상태: {}", ordering.getId(), ordering.getOrderStatus());
+    }
+
+    // 주문 상세 전체를 product-service에 한 번에 보내서 재고 확인 + 차감을 처리.
+    // 주문 줄 수와 상관없이 요청은 한 번만 나갑니다.
+    private void reserveStock(List<OrderingSaveReqDto> dtoList, Ordering ordering) {
+        // 아직 재고를 가져가지 않은 줄만 예약 (이전 시도를 줄 단위 방식으로 처리했다면 일부 줄은 이미 차감됐을 수 있다)
+        List<OrderDetail> owed = ordering.getOrderDetails().stream()
+                .filter(detail -> !detail.isStockDeducted())
+                .toList();
+        if (owed.isEmpty()) {
+            return;
+        }
+        List<OrderingSaveReqDto> toReserve = owed.stream()
+                .map(detail -> new OrderingSaveReqDto(detail.getProductId(), detail.getQuantity()))
+                .toList();
+
+        List<ProductReserveResDto> results;
+        try {
+            CommonResDto<List<ProductReserveResDto>> reserved = productServiceLimiter.call(
+                    () -> productUpdateCircuit.run(() -> productServiceClient.reserveProducts(toReserve))
+            );
+            results = reserved.getResult();
+        } catch (Exception e) {
+            // 요청 자체가 잘못된 경우(4xx) -> 다시 보내도 결과가 같으니 보류하지 않고 주문 거절
+            rejectIfClientError(e);
+            // 예약 요청 자체가 실패 -> product-service 쪽 트랜잭션 단위라 차감된 재고는 없음. 재처리 대상.
+            log.error("재고 예약 실패! 주문 상품 수: {}, 오류: {}", toReserve.size(), e.getMessage());
+            ordering.updateStatus(OrderStatus.PENDING_PROD_STOCK_UPDATE);
+            return;
+        }
+        log.info("product-service로부터 받아온 예약 결과: {}", results);
+
+        // 모든 줄이 RESERVED일 때만 재고가 실제로 차감된 것. 그 외에는 전부 차감되지 않은 상태(product-service가 롤백).
+        if (results != null && !results.isEmpty() && results.stream()
+                .allMatch(result -> result.getResult() == ProductReserveResDto.ReserveResult.RESERVED)) {
+            owed.forEach(detail -> detail.setStockDeducted(true));
+            return;
+        }
+
+        if (results != null) {
+            for (ProductReserveResDto result : results) {
+                if (result.getResult() == ProductReserveResDto.ReserveResult.OUT_OF_STOCK) {
+                    // 주문 보류가 아니라 클라이언트 예외! (예약은 전부 취소된 상태)
+                    log.warn("재고 부족으로 주문 불가! 상품 ID: {}, 남은 재고: {}"
+                            , result.getProductId(), result.getRemainingQuantity());
+                    throw new IllegalArgumentException("재고 부족!");
+                }
+            }
+        }
+
+        boolean notFound = results != null && results.stream()
+                .anyMatch(result -> result.getResult() == ProductReserveResDto.ReserveResult.NOT_FOUND);
+        // NOT_FOUND가 아니면서 전부 RESERVED도 아닌 경우 (예: 전부 NOT_APPLIED)
+        // -> 차감 UPDATE는 실패했는데 다시 읽어 보니 재고가 충분함 (그 사이 다른 주문 취소/입고 등)
+        // 재고 부족으로 확정할 수 없으니 재고 차감 장애와 같이 보류 후 재처리.
+        ordering.updateStatus(notFound
+                ? OrderStatus.PENDING_PROD_NOT_FOUND
+                : OrderStatus.PENDING_PROD_STOCK_UPDATE);
+    }
+
+    // 주문 줄마다 상품 조회 -> 재고 차감 요청을 반복하는 기존 방식
+    private void processOrderLineByLine(List<OrderingSaveReqDto> dtoList, Ordering ordering,
+                                        List<CompletableFuture<ProductResDto>> lookups) {
+        // 병렬 모드라면 모든 줄의 상품 조회를 먼저 동시에 보내 놓고, 아래 차감 단계에서 순서대로 결과를 꺼내 쓴다.
+        // 지연 시간: (줄 수 x product-service 응답 시간) -> 가장 느린 조회 하나의 응답 시간
+        // (createOrder에서 회원 조회와 함께 미리 출발시켰다면 그 결과를 사용)
+        if (lookups == null && parallelLookup) {
+            lookups = lookupProductsConcurrently(dtoList);
+        }
 
         // 주문 상세 내역에 대한 처리를 반복해서 지정.
-        for (OrderingSaveReqDto dto : dtoList) {
+        for (int i = 0; i < dtoList.size(); i++) {
+            OrderingSaveReqDto dto = dtoList.get(i);
+            OrderDetail orderDetail = ordering.getOrderDetails().get(i);
+
+            // 이전 시도에서 이미 재고를 가져간 줄 -> 다시 차감하지 않는다.
+            if (orderDetail.isStockDeducted()) {
+                continue;
+            }
 
             try {
                 // dto 안에 있는 상품 id를 이용해서 상품 정보 얻어오자.
                 // product 객체를 조회하자 -> product-service에게 요청해야 함!
-                ProductResDto prodResDto = getProductInfo(dto.getProductId());
+                ProductResDto prodResDto = (lookups != null)
+                        ? awaitProductInfo(lookups.get(i))
+                        : getProductInfo(dto.getProductId());
 
                 log.info("product-service로부터 받아온 결과: {}", prodResDto);
                 int stockQuantity = prodResDto.getStockQuantity();
@@ -163,20 +361,11 @@ public class OrderingService {
                     throw new IllegalArgumentException("재고 부족!");
                 }
 
-                deductStock(prodResDto, quantity);
-
-                // 주문 상세 내역 엔터티 생성
-                OrderDetail orderDetail = OrderDetail.builder()
-                        .productId(dto.getProductId())
-                        .ordering(ordering)
-                        .quantity(quantity)
-                        .build();
+                deductStock(dto);
 
+                // 이 줄은 재고를 가져갔음 -> 재처리 때 건너뛰고, 취소/거절 때 되돌릴 대상
+                orderDetail.setStockDeducted(true);
                 log.info("orderDetail: {}", orderDetail);
-
-                // 주문 내역 리스트에 상세 내역을 add하기.
-                // (cascadeType.PERSIST로 세팅했기 때문에 함께 INSERT가 진행될 것!)
-                ordering.getOrderDetails().add(orderDetail);
             } catch (ServiceUnavailableException e) {
                 // product와의 통신에서는 경우의 수가 2가지 이기 때문에
                 // 에러 메세지에 포함 되어있는 단어의 유무에 따라 status를 다르게 세팅.
@@ -185,9 +374,8 @@ public class OrderingService {
                                 OrderStatus.PENDING_PROD_STOCK_UPDATE :
                                 OrderStatus.PENDING_PROD_NOT_FOUND
                 );
-                // catch 블록에서는 이 상품만 다시 add
-                ordering.getOrderDetails().add(toOrderDetail(dto, ordering));
-                orderingRepository.save(ordering);
+                // 이 줄은 차감 표시 없이 남는다 -> 재처리 때 이 줄만 다시
+                // (저장은 모든 줄을 처리한 뒤 한 번에 -> 중간에 재고 부족으로 끝나면 보류 주문도 남기지 않음)
 
             } catch (IllegalArgumentException e) {
                 // 이 상황은 주문 보류가 아니에요! 서비스 장애 때문에 벌어진 상황이 아님!
@@ -195,37 +383,79 @@ public class OrderingService {
                 throw e; // 클라이언트 예외니까 그대로 던짐 -> 컨트롤러 -> 전역 예외 핸들러가 클라이언트로 상태를 전달.
             }
         }
-        log.info("마지막 ordering: {}", ordering.getId());
-        orderingRepository.save(ordering);
     }
 
-    // 재고를 주문수량만큼 감소시켜달라는 요청을 전담하는 메서드
-    private void deductStock(ProductResDto prodResDto, int quantity) {
-        try {
-            CircuitBreaker updateCircuit = circuitBreakerFactory.create("productServiceUpdate");
+    // 주문 줄마다의 상품 조회를 동시에 시작. (논블로킹 클라이언트라 조회 수만큼 스레드가 필요하지 않음)
+    // productService 서킷 브레이커와 TimeLimiter가 Feign 호출과 똑같이 적용된다.
+    // 주문 안에서 같은 상품이 여러 줄이거나 다른 주문과 겹치면 조회 하나로 합쳐진다.
+    private List<CompletableFuture<ProductResDto>> lookupProductsConcurrently(List<OrderingSaveReqDto> dtoList) {
+        return dtoList.stream()
+                .map(dto -> productLookupCoalescer.findById(dto.getProductId()))
+                .toList();
+    }
 
-            updateCircuit.run(() -> {
-                prodResDto.setStockQuantity(prodResDto.getStockQuantity() - quantity);
-                productServiceClient.updateQuantity(prodResDto);
-                return null;
-            });
+    // 동시에 보낸 조회 결과를 기다린다.
+    // 실패했다면 순차 조회 때와 같은 예외(ServiceUnavailableException)로 풀어서 던져야
+    // 기존의 PENDING_PROD_* 상태 처리 로직을 그대로 탈 수 있다.
+    private ProductResDto awaitProductInfo(CompletableFuture<ProductResDto> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ServiceUnavailableException cause) {
+                throw cause;
+            }
+            throw new ServiceUnavailableException("상품 정보 조회 실패");
+        }
+    }
 
+    // 재고를 주문수량만큼 감소시켜달라는 요청을 전담하는 메서드
+    // 조회한 재고로 계산한 값을 덮어쓰지 않고, 차감할 수량만 보내서 product-service가 원자적으로 차감.
+    private void deductStock(OrderingSaveReqDto dto) {
+        Boolean decreased;
+        try {
+            decreased = productServiceLimiter.call(
+                    () -> productUpdateCircuit.run(() -> productServiceClient.decreaseQuantity(dto).getResult())
+            );
         } catch (Exception e) {
-            log.error("재고 차감 실패! 상품 ID: {}, 오류: {}", prodResDto.getId(), e.getMessage());
+            rejectIfClientError(e);
+            log.error("재고 차감 실패! 상품 ID: {}, 오류: {}", dto.getProductId(), e.getMessage());
             throw new ServiceUnavailableException("재고 차감 실패");
         }
+
+        if (!Boolean.TRUE.equals(decreased)) {
+            // 조회 이후에 다른 주문이 재고를 먼저 가져간 경우 -> 장애가 아니라 재고 부족.
+            throw new IllegalArgumentException("재고 부족!");
+        }
+    }
+
+    // product-service가 4xx로 답한 재고 요청 -> 장애가 아니라 처리할 수 없는 주문이므로 IllegalArgumentException(주문 거절)
+    // 429(요청 과다)는 상대가 밀리고 있다는 뜻이라 장애와 같이 보류 -> 재처리
+    // 서킷 브레이커가 NoFallbackAvailableException으로 감싸서 던지므로 원인을 따라가며 본다.
+    private void rejectIfClientError(Exception failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FeignException.FeignClientException clientError
+                    && clientError.status() != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                log.warn("product-service가 재고 요청을 거절함 ({}), 주문 불가: {}", clientError.status(), clientError.getMessage());
+                throw new IllegalArgumentException("처리할 수 없는 주문입니다.");
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
     }
 
     // 번호를 전달받아서 product-service로부터 상품 정보 조회를 전담하는 메서드
     private ProductResDto getProductInfo(Long productId) {
+        if (productLookupCoalescer.isEnabled() || productServiceHedger.isEnabled()) {
+            // 실패 시 ServiceUnavailableException으로 풀어주는 것은 awaitProductInfo가 처리
+            return awaitProductInfo(productLookupCoalescer.findById(productId));
+        }
         try {
-            CircuitBreaker productCircuit = circuitBreakerFactory.create("productService");
-
             // 여기도 장애 발생 시 fallback 로직을 작성하지 않았습니다. 왜냐?
             // 대체 로직이 정상 상황을 완벽하게 대체할 수가 없으니깐... -> 주문 보류!
             // user-service쪽과 마찬가지로 아예 예외로 빼서 나중에 재처리 해 줄겁니다.
-            CommonResDto<ProductResDto> byId = productCircuit.run(
-                    () -> productServiceClient.findById(productId)
+            CommonResDto<ProductResDto> byId = productServiceLimiter.call(
+                    () -> productCircuit.run(() -> productServiceClient.findById(productId))
             );
             return byId.getResult();
         } catch (Exception e) {
@@ -242,19 +472,72 @@ public class OrderingService {
                 .build();
     }
 
-    public List<OrderingListResDto> myOrder(final TokenUserInfo userInfo) {
+    public OrderingPageResDto myOrder(final TokenUserInfo userInfo,
+                                      Long cursor, int size, boolean withDetails) {
         String email = userInfo.getEmail();
 
         // 이메일로는 주문 회원 정보를 알 수가 없음. (id로 되어 있으니까)
-        CommonResDto<UserResDto> byEmail
-                = userServiceClient.findByEmail(email);
-        UserResDto userDto = byEmail.getResult();
+        Long userId = resolveUserId(userInfo);
 
-        // 해당 사용자의 주문 내역 전부 가져오기.
-        List<Ordering> orderingList
-                = orderingRepository.findByUserId(userDto.getId());
+        // 해당 사용자의 주문 내역을 한 페이지만 가져오기.
+        // 다음 페이지가 있는지 알기 위해 하나 더 조회한다.
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<Ordering> orderingList = orderingRepository.findPageByUserId(
+                userId, cursor, PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = orderingList.size() > pageSize;
+        if (hasNext) {
+            orderingList = orderingList.subList(0, pageSize);
+        }
+        Long nextCursor = hasNext ? orderingList.get(orderingList.size() - 1).getId() : null;
+
+        List<OrderingListResDto> orders;
+        if (withDetails) {
+            // OSIV를 끈 상태라 응답 변환 중에는 지연 로딩을 할 수 없다 -> 이 페이지 주문들의 상세를 한 번에 미리 가져온다.
+            List<Long> orderIds = orderingList.stream().map(Ordering::getId).toList();
+            List<Ordering> withOrderDetails = orderIds.isEmpty()
+                    ? orderingList
+                    : orderingRepository.findWithOrderDetailsByIdIn(orderIds);
+            orders = toListResDtos(withOrderDetails, email);
+        } else {
+            // 주문 헤더만 (상세는 GET /order/{id}로 필요할 때 하나씩)
+            orders = orderingList.stream()
+                    .map(ordering -> OrderingListResDto.builder()
+                            .id(ordering.getId())
+                            .userEmail(email)
+                            .orderStatus(ordering.getOrderStatus())
+                            .build())
+                    .collect(Collectors.toList());
+        }
+
+        return OrderingPageResDto.builder()
+                .orders(orders)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    // 주문 하나의 상세 (내 주문만, 관리자는 전부)
+    public OrderingListResDto findOrder(final TokenUserInfo userInfo, long id) {
+        Ordering ordering = orderingRepository.findWithOrderDetailsById(id).orElseThrow(
+                () -> new EntityNotFoundException("주문 없음!")
+        );
+        // 남의 주문은 있는지 없는지도 알려주지 않는다.
+        if (userInfo.getRole() != Role.ADMIN
+                && !userInfo.getEmail().equals(ordering.getUserEmail())) {
+            throw new EntityNotFoundException("주문 없음!");
+        }
+        return toListResDtos(List.of(ordering), ordering.getUserEmail()).get(0);
+    }
+
+    // 주문 목록을 상품명까지 채운 DTO로 변환
+    // 주문 상세는 호출한 쪽에서 함께 조회해 둔 상태로 넘어오고 (주문 수와 상관없이 쿼리 한 번),
+    // 상품 정보도 이 주문들에 등장하는 상품만 한 번에 요청한다.
+    private List<OrderingListResDto> toListResDtos(List<Ordering> orderingList, String email) {
+        if (orderingList.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        List<Long> productIdList = new ArrayList<>();
         // 주문 내역에서 모든 상품 ID를 추출한 후
         // product-service에게 상품 정보를 요청.
 
@@ -312,13 +595,11 @@ public class OrderingService {
                 .distinct()
                 .collect(Collectors.toList());
 
-        // product-service에게 상품 정보를 달라고 요청해야 함.
-        CommonResDto<List<ProductResDto>> products
-                = productServiceClient.getProducts(productIds);
-        List<ProductResDto> dtoList = products.getResult();
+        // 상품 정보는 로컬 캐시에서 먼저 찾고, 캐시에 없는 상품만 product-service에게 한 번에 요청.
+        Map<Long, ProductResDto> products = productInfoCache.getProducts(productIds);
 
-        // product-service에게 받아온 리스트를 필요로 하는 정보로만 맵으로 맵핑.
-        Map<Long, String> productIdToNameMap = dtoList.stream()
+        // 받아온 상품 정보를 필요로 하는 정보로만 맵으로 맵핑.
+        Map<Long, String> productIdToNameMap = products.values().stream()
                 .collect(Collectors.toMap(
                         dto -> dto.getId(), // key
                         dto -> dto.getName() // value
@@ -331,28 +612,104 @@ public class OrderingService {
     }
 
     public Ordering cancelOrder(long id) {
-        Ordering ordering = orderingRepository.findById(id).orElseThrow(
+        Ordering ordering = orderingRepository.findWithOrderDetailsById(id).orElseThrow(
                 () -> new EntityNotFoundException("주문 없음!")
         );
+        OrderStatus current = ordering.getOrderStatus();
+
+        // 거절된 주문은 차감된 재고도 없고, 취소할 것도 없다.
+        if (current == OrderStatus.REJECTED) {
+            throw new IllegalArgumentException("처리되지 않은(거절된) 주문은 취소할 수 없습니다.");
+        }
+        // 이미 취소된 주문 -> 재고를 또 돌려놓으면 안 되니 그대로 리턴
+        if (current == OrderStatus.CANCELED) {
+            return ordering;
+        }
+
         // 주문 취소 -> 주문 entity의 status를 CANCELED로 변경
+        // 재처리 스케줄러나 사가가 처리 중인(임대 중) 주문이면 취소 불가 -> 처리가 끝난 뒤 다시 요청.
+        // 상태를 먼저 조건부로 바꿔서, 처리 결과 저장과 취소가 겹치거나 취소가 두 번 들어와도 한쪽만 성공한다.
+        Integer canceled = transactionTemplate.execute(status -> orderingRepository.changeStatusIfUnclaimed(
+                id, List.of(current), OrderStatus.CANCELED, LocalDateTime.now()));
+        if (canceled == null || canceled == 0) {
+            throw new IllegalArgumentException("처리 중인 주문입니다. 잠시 후 다시 시도해 주세요.");
+        }
+
         // 당시 주문했던 상품들의 수량을 원상복구 해 놓아야 한다.
         // 주문1 -> 상품34: 3개, 상품17: 5개 -> 주문 들어갔을 때 감소했으니까, 주문 취소때는 증가 시켜야 한다.
-        List<OrderDetail> orderDetailList = ordering.getOrderDetails();
-        Map<Long, Integer> map = orderDetailList.stream()
+        // 단, 재고를 실제로 가져간 줄만! 주문 완료(ORDERED)면 전부,
+        // 보류(PENDING_*)면 줄 단위 처리에서 차감을 마친 줄만 (접수(ACCEPTED) 주문은 아직 없음)
+        // (차감 표시가 생기기 전에 완료된 주문도 있으므로 ORDERED는 모든 줄을 가져간 것으로 본다)
+        if (current == OrderStatus.ORDERED) {
+            ordering.getOrderDetails().forEach(detail -> detail.setStockDeducted(true));
+        }
+        try {
+            restoreStock(ordering);
+        } catch (RuntimeException e) {
+            // 재고를 돌려놓지 못했으면 취소도 되돌린다. (다시 취소 요청할 수 있도록)
+            transactionTemplate.execute(status -> orderingRepository.changeStatusIfUnclaimed(
+                    id, List.of(OrderStatus.CANCELED), current, LocalDateTime.now()));
+            throw e;
+        }
+
+        ordering.updateStatus(OrderStatus.CANCELED);
+        return ordering;
+    }
+
+    // 이 주문으로 차감한 재고를 product-service에 되돌려 달라고 요청
+    // (주문 취소, 또는 처리 결과를 저장하지 못했을 때의 보상)
+    public void restoreStock(Ordering ordering) {
+        restoreStock(ordering.getOrderDetails());
+    }
+
+    // 주어진 줄 중 재고를 가져간(stockDeducted) 줄만 되돌리고, 되돌린 줄은 표시를 지운다.
+    public void restoreStock(List<OrderDetail> orderDetailList) {
+        List<OrderDetail> deducted = orderDetailList.stream()
+                .filter(OrderDetail::isStockDeducted)
+                .toList();
+        Map<Long, Integer> map = deducted.stream()
                 .collect(Collectors.toMap(
                         detail -> detail.getProductId(),
-                        detail -> detail.getQuantity()
+                        detail -> detail.getQuantity(),
+                        Integer::sum // 같은 상품이 여러 줄이면 수량을 합친다.
                 ));
+        if (map.isEmpty()) {
+            return;
+        }
         log.info("toMap의 결과: {}", map);
         productServiceClient.cancelProduct(map);
+        deducted.forEach(detail -> detail.setStockDeducted(false));
+    }
 
-
-        // 더티 체킹 (save를 하지 않아도 변경을 감지해서 update를 날려 준다.)
-        ordering.updateStatus(OrderStatus.CANCELED);
-//        orderingRepository.save(ordering);
-        return ordering;
+    // 재고 부족으로 주문을 처리할 수 없게 됐을 때 호출 (processOrderToProductService가 IllegalArgumentException을 던진 직후)
+    // 한 번에 예약하는 방식은 product-service가 이번 예약을 전부 취소해 둔 상태라 새로 차감된 줄이 없다.
+    // 줄 단위 방식은 앞 줄(또는 이전 재처리)에서 이미 차감한 줄이 있을 수 있다 -> 차감 표시된 줄만 되돌린다.
+    public void releasePartialReservation(Ordering ordering) {
+        try {
+            restoreStock(ordering);
+        } catch (Exception e) {
+            // 여기서 실패하면 재고가 덜 남은 채로 남는다 -> 운영 확인이 필요하므로 error로 남김
+            log.error("재고 되돌리기 실패! 주문 ID: {}, {}", ordering.getId(), e.getMessage());
+        }
     }
 
+    // 임대(lease)를 잡고 처리한 주문의 결과 저장 (재처리 스케줄러, 비동기 접수 사가)
+    // 임대를 아직 갖고 있고 그 사이 상태가 바뀌지 않았을 때만 저장하고, 주문 완료면 관리자 알림도 같은 트랜잭션에서 접수.
+    // false: 임대를 잃었음 (만료 후 다른 인스턴스가 가져갔거나 그 사이 취소됨) -> 아무것도 저장하지 않았다.
+    //        이 작업자가 차감한 재고가 있다면 호출한 쪽에서 되돌려야 한다.
+    public boolean saveLeasedResult(Ordering ordering, String leaseOwner, OrderStatus claimedStatus) {
+        ordering.releaseLease();
+        Boolean saved = transactionTemplate.execute(status -> {
+            if (orderingRepository.releaseLeaseIfOwner(ordering.getId(), leaseOwner, claimedStatus) == 0) {
+                return false;
+            }
+            Ordering savedOrdering = orderingRepository.save(ordering);
+            // 주문 완료(ORDERED)일 때만 실제로 알림이 접수된다.
+            orderNotificationService.sendNewOrderNotification(savedOrdering);
+            return true;
+        });
+        return Boolean.TRUE.equals(saved);
+    }
 
 }
 
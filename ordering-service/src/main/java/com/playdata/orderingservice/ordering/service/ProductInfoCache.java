@@ -0,0 +1,124 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.common.dto.CommonResDto;
+import com.playdata.orderingservice.common.hedging.HedgingExecutor;
+import com.playdata.orderingservice.common.limiter.AdaptiveConcurrencyLimiter;
+import com.playdata.orderingservice.ordering.dto.ProductChangedEvent;
+import com.playdata.orderingservice.ordering.dto.ProductResDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+상품 요약 정보(이름, 가격 등) 로컬 캐시
+
+주문 목록을 보여줄 때마다 product-service에 상품 정보를 물어봤는데, 상품명은 거의 바뀌지 않는다.
+- 인스턴스 메모리에 최대 개수/만료 시간을 정해서 보관
+- 캐시에 없는 상품만 모아서 getProducts 한 번으로 요청
+- product-service가 상품 수정/삭제 이벤트를 보내면 해당 상품을 캐시에서 제거
+- product-service가 죽어 있어도 캐시에 있는 상품은 그대로 보여줄 수 있다.
+
+재고 수량은 수시로 바뀌므로 여기서 꺼낸 stockQuantity는 믿으면 안 됨! (재고 확인은 항상 product-service로)
+ */
+@Component
+@Slf4j
+public class ProductInfoCache {
+
+    private final Cache<Long, ProductResDto> cache;
+    private final ProductServiceClient productServiceClient;
+    private final CircuitBreaker productCircuit;
+    private final AdaptiveConcurrencyLimiter productServiceLimiter;
+    // 요청 합치기나 헤징이 켜져 있으면 누락분 조회를 논블로킹 클라이언트 쪽으로 보낸다.
+    // (여러 사용자가 동시에 목록을 열어도 짧은 시간 안의 누락분은 묶음 조회 한 번으로 합쳐짐)
+    private final HedgingExecutor productServiceHedger;
+    private final ProductLookupCoalescer productLookupCoalescer;
+
+    public ProductInfoCache(ProductServiceClient productServiceClient,
+                            ProductLookupCoalescer productLookupCoalescer,
+                            HedgingExecutor productServiceHedger,
+                            CircuitBreakerFactory circuitBreakerFactory,
+                            AdaptiveConcurrencyLimiter productServiceLimiter,
+                            MeterRegistry meterRegistry,
+                            @Value("${ordering.product.cache.max-size:10000}") long maxSize,
+                            @Value("${ordering.product.cache.ttl-minutes:10}") long ttlMinutes) {
+        this.productServiceClient = productServiceClient;
+        this.productCircuit = circuitBreakerFactory.create("productService");
+        this.productServiceLimiter = productServiceLimiter;
+        this.productLookupCoalescer = productLookupCoalescer;
+        this.productServiceHedger = productServiceHedger;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats() // 적중/미스/제거 횟수 기록
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size ... (cache=productInfo)
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productInfo");
+    }
+
+    // 상품 id 목록 -> (id, 상품 정보) 맵
+    // product-service 호출에 실패하면 캐시에 있던 것만 돌려준다. (없는 상품은 맵에 없음)
+    public Map<Long, ProductResDto> getProducts(Collection<Long> productIds) {
+        Map<Long, ProductResDto> result = new HashMap<>(cache.getAllPresent(productIds));
+
+        List<Long> missingIds = new ArrayList<>();
+        for (Long productId : productIds) {
+            if (!result.containsKey(productId) && !missingIds.contains(productId)) {
+                missingIds.add(productId);
+            }
+        }
+        if (missingIds.isEmpty()) {
+            return result;
+        }
+
+        try {
+            for (ProductResDto dto : fetchProducts(missingIds)) {
+                cache.put(dto.getId(), dto);
+                result.put(dto.getId(), dto);
+            }
+            if (!result.keySet().containsAll(missingIds)) {
+                log.warn("일부 상품 정보 조회 실패, 가져온 것만 사용합니다. 요청: {}", missingIds);
+            }
+        } catch (Exception e) {
+            log.warn("상품 정보 조회 실패, 캐시된 {}건만 사용합니다. 누락: {}, 이유: {}",
+                    result.size(), missingIds, e.getMessage());
+        }
+        return result;
+    }
+
+    private Collection<ProductResDto> fetchProducts(List<Long> productIds) {
+        if (productLookupCoalescer.isEnabled() || productServiceHedger.isEnabled()) {
+            // 실패한 상품은 결과에서 빠져 있다 -> getProducts에서 누락 로그로 남음
+            return productLookupCoalescer.getProducts(productIds).join().values();
+        }
+        // 한도 초과로 거절되면 호출 실패와 똑같이 캐시된 것만 사용
+        CommonResDto<List<ProductResDto>> products = productServiceLimiter.call(
+                () -> productCircuit.run(() -> productServiceClient.getProducts(productIds)));
+        return products.getResult();
+    }
+
+    // 상품이 수정/삭제되면 캐시에서 제거 -> 다음 조회 때 product-service에서 새로 가져옴
+    // 큐 이름은 인스턴스마다 다르므로 빈(productCacheQueue)의 이름을 SpEL로 꺼내서 사용.
+    @RabbitListener(queues = "#{productCacheQueue.name}")
+    public void onProductChanged(ProductChangedEvent event) {
+        log.info("상품 변경 이벤트 수신, 캐시 제거: {}", event);
+        if (event.getProductId() != null) {
+            cache.invalidate(event.getProductId());
+        }
+    }
+
+}
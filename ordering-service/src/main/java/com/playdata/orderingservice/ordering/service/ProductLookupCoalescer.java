@@ -0,0 +1,259 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.client.ProductServiceAsyncClient;
+import com.playdata.orderingservice.ordering.dto.ProductResDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+같은 상품을 동시에 조회하는 요청 합치기 (single-flight)
+
+타임세일 때는 한 인스턴스 안에서 수백 건의 주문이 같은 상품을 거의 같은 순간에 조회한다.
+그대로 두면 조회 수만큼 HTTP 요청과 product-service의 DB 조회가 발생.
+- 같은 상품 id에 대해 이미 진행 중인 조회가 있으면 새로 보내지 않고 그 결과를 같이 받는다.
+- 여러 상품을 한꺼번에 조회하는 요청(getProducts)은 짧은 시간(batch-window-ms) 동안 모았다가
+  상품 id를 합쳐서 한 번에 보낸다.
+- 결과를 보관하지는 않는다! 응답이 오면 바로 비우므로 캐시처럼 오래된 재고 수량을 돌려주는 일은 없음.
+  (재고 차감은 어차피 product-service가 조건부로 처리)
+
+실제 호출은 ProductServiceAsyncClient로 나가므로 리미터/헤징/서킷 브레이커가 그대로 적용된다.
+기본은 꺼져 있음: 켜면 상품 조회가 Feign(HC5 커넥션 풀) 대신 비동기 클라이언트로 나가므로 필요한 인스턴스에서만 켠다.
+ */
+@Component
+@Slf4j
+public class ProductLookupCoalescer {
+
+    private final ProductServiceAsyncClient productServiceAsyncClient;
+    private final boolean enabled;
+    private final long batchWindowMs;
+    private final int maxBatchSize;
+
+    // 상품 id -> 진행 중인 조회 (응답이 오면 제거)
+    private final Map<Long, CompletableFuture<ProductResDto>> inFlight = new ConcurrentHashMap<>();
+
+    // 아직 보내지 않은 getProducts 대기열
+    private final Object batchLock = new Object();
+    private Map<Long, CompletableFuture<ProductResDto>> pendingBatch = new LinkedHashMap<>();
+
+    private final ScheduledExecutorService batchScheduler
+            = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "product-lookup-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // ordering.product.lookup.requested / coalesced / calls {op=findById|getProducts}
+    // coalescing.ratio = coalesced / requested (합쳐진 조회의 비율)
+    private final Map<String, AtomicLong> requested = new HashMap<>();
+    private final Map<String, AtomicLong> coalesced = new HashMap<>();
+    private final Map<String, Counter> calls = new HashMap<>();
+
+    public ProductLookupCoalescer(ProductServiceAsyncClient productServiceAsyncClient,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${ordering.product.coalescing.enabled:false}") boolean enabled,
+                                  @Value("${ordering.product.coalescing.batch-window-ms:5}") long batchWindowMs,
+                                  @Value("${ordering.product.coalescing.max-batch-size:100}") int maxBatchSize) {
+        this.productServiceAsyncClient = productServiceAsyncClient;
+        this.enabled = enabled;
+        this.batchWindowMs = batchWindowMs;
+        this.maxBatchSize = maxBatchSize;
+
+        for (String op : List.of("findById", "getProducts")) {
+            AtomicLong requestedCount = new AtomicLong();
+            AtomicLong coalescedCount = new AtomicLong();
+            requested.put(op, requestedCount);
+            coalesced.put(op, coalescedCount);
+
+            FunctionCounter.builder("ordering.product.lookup.requested", requestedCount, AtomicLong::get)
+                    .tag("op", op)
+                    .description("요청된 상품 조회 수 (상품 id 기준)")
+                    .register(meterRegistry);
+            FunctionCounter.builder("ordering.product.lookup.coalesced", coalescedCount, AtomicLong::get)
+                    .tag("op", op)
+                    .description("진행 중인 조회에 합쳐져서 따로 보내지 않은 조회 수")
+                    .register(meterRegistry);
+            Gauge.builder("ordering.product.lookup.coalescing.ratio",
+                            () -> requestedCount.get() == 0 ? 0.0
+                                    : (double) coalescedCount.get() / requestedCount.get())
+                    .tag("op", op)
+                    .description("합쳐진 조회의 비율 (기동 이후 누적)")
+                    .register(meterRegistry);
+            calls.put(op, Counter.builder("ordering.product.lookup.calls")
+                    .tag("op", op)
+                    .description("product-service로 실제로 보낸 조회 요청 수")
+                    .register(meterRegistry));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 상품 하나 조회. 같은 상품의 조회(단건이든 묶음이든)가 진행 중이면 그 결과를 같이 받는다.
+    // 상품이 없으면 예외로 끝남 (product-service 404와 같은 취급)
+    public CompletableFuture<ProductResDto> findById(Long productId) {
+        requested.get("findById").incrementAndGet();
+        if (!enabled) {
+            calls.get("findById").increment();
+            return productServiceAsyncClient.findById(productId);
+        }
+
+        CompletableFuture<ProductResDto> created = new CompletableFuture<>();
+        CompletableFuture<ProductResDto> existing = inFlight.putIfAbsent(productId, created);
+        if (existing != null) {
+            coalesced.get("findById").incrementAndGet();
+            // 호출한 쪽이 취소하거나 기다리다 말아도 공유 중인 조회에는 영향이 없도록 한 겹 감싸서 돌려줌
+            return existing.thenApply(dto -> dto);
+        }
+        created.whenComplete((dto, e) -> inFlight.remove(productId, created));
+
+        // 실제 요청은 맵에 등록한 뒤, 맵 연산 밖에서 보낸다.
+        calls.get("findById").increment();
+        CompletableFuture<ProductResDto> response;
+        try {
+            response = productServiceAsyncClient.findById(productId);
+        } catch (RuntimeException e) {
+            // 호출 자체가 바로 실패해도 등록해 둔 조회는 반드시 끝내야 한다.
+            // (안 그러면 맵에 남아서 이 상품의 이후 조회가 전부 영원히 기다림)
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((dto, e) -> {
+            if (e != null) {
+                created.completeExceptionally(e);
+            } else {
+                created.complete(dto);
+            }
+        });
+        return created.thenApply(dto -> dto);
+    }
+
+    // 여러 상품 조회 -> (id, 상품 정보) 맵. 조회에 실패했거나 없는 상품은 맵에 들어있지 않다.
+    public CompletableFuture<Map<Long, ProductResDto>> getProducts(Collection<Long> productIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(productIds));
+        requested.get("getProducts").addAndGet(distinctIds.size());
+        if (!enabled) {
+            calls.get("getProducts").increment();
+            return productServiceAsyncClient.getProducts(distinctIds)
+                    .thenApply(list -> {
+                        Map<Long, ProductResDto> result = new HashMap<>();
+                        list.forEach(dto -> result.put(dto.getId(), dto));
+                        return result;
+                    });
+        }
+
+        Map<Long, CompletableFuture<ProductResDto>> futures = new LinkedHashMap<>();
+        for (Long productId : distinctIds) {
+            CompletableFuture<ProductResDto> created = new CompletableFuture<>();
+            CompletableFuture<ProductResDto> existing = inFlight.putIfAbsent(productId, created);
+            if (existing != null) {
+                coalesced.get("getProducts").incrementAndGet();
+                futures.put(productId, existing);
+                continue;
+            }
+            created.whenComplete((dto, e) -> inFlight.remove(productId, created));
+            futures.put(productId, created);
+            enqueue(productId, created);
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .handle((ignored, e) -> {
+                    Map<Long, ProductResDto> result = new HashMap<>();
+                    futures.forEach((productId, future) -> {
+                        if (!future.isCompletedExceptionally()) {
+                            result.put(productId, future.join());
+                        }
+                    });
+                    return result;
+                });
+    }
+
+    private void enqueue(Long productId, CompletableFuture<ProductResDto> future) {
+        Map<Long, CompletableFuture<ProductResDto>> ready = null;
+        synchronized (batchLock) {
+            pendingBatch.put(productId, future);
+            if (pendingBatch.size() >= maxBatchSize) {
+                // 충분히 모였으면 기다리지 않고 바로 전송
+                ready = takePendingBatch();
+            } else if (pendingBatch.size() == 1) {
+                // 대기열의 첫 상품 -> 모으는 시간이 끝나면 전송
+                batchScheduler.schedule(this::flushPendingBatch, batchWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            sendBatch(ready);
+        }
+    }
+
+    private void flushPendingBatch() {
+        Map<Long, CompletableFuture<ProductResDto>> ready;
+        synchronized (batchLock) {
+            ready = takePendingBatch();
+        }
+        // 개수가 차서 먼저 보낸 경우 비어 있을 수 있음
+        if (!ready.isEmpty()) {
+            sendBatch(ready);
+        }
+    }
+
+    private Map<Long, CompletableFuture<ProductResDto>> takePendingBatch() {
+        Map<Long, CompletableFuture<ProductResDto>> batch = pendingBatch;
+        pendingBatch = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void sendBatch(Map<Long, CompletableFuture<ProductResDto>> batch) {
+        calls.get("getProducts").increment();
+        log.debug("상품 묶음 조회 전송: {}건", batch.size());
+
+        CompletableFuture<List<ProductResDto>> response;
+        try {
+            response = productServiceAsyncClient.getProducts(new ArrayList<>(batch.keySet()));
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        response.whenComplete((list, e) -> {
+            if (e != null) {
+                batch.values().forEach(future -> future.completeExceptionally(e));
+                return;
+            }
+            Map<Long, ProductResDto> byId = new HashMap<>();
+            list.forEach(dto -> byId.put(dto.getId(), dto));
+            batch.forEach((productId, future) -> {
+                ProductResDto dto = byId.get(productId);
+                if (dto != null) {
+                    future.complete(dto);
+                } else {
+                    future.completeExceptionally(new NoSuchElementException("상품 없음: " + productId));
+                }
+            });
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchScheduler.shutdownNow();
+    }
+
+}
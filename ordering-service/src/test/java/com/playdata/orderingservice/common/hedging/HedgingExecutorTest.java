@@ -0,0 +1,123 @@
+package com.playdata.orderingservice.common.hedging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class HedgingExecutorTest {
+
+    private static final int WINDOW = 50;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void disabledExecutorSendsExactlyOneAttempt() {
+        HedgingExecutor hedger = new HedgingExecutor("test", false, 95, 1, 100, WINDOW, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = hedger.execute(() -> {
+            attempts.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertThat(result).isNotDone();
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void noHedgeBeforeEnoughLatencySamples() throws Exception {
+        HedgingExecutor hedger = new HedgingExecutor("test", true, 95, 1, 100, WINDOW, meterRegistry);
+
+        hedger.execute(() -> new CompletableFuture<>());
+        Thread.sleep(50);
+
+        assertThat(hedgesSent()).isZero();
+    }
+
+    @Test
+    void hedgesAreCappedByTheBudgetAndTheBurstLimit() throws Exception {
+        // 예산 10%: 요청 10건에 헤지 1건. 한가할 때 쌓이는 예산은 최대 10개까지.
+        HedgingExecutor hedger = new HedgingExecutor("test", true, 95, 1, 10, WINDOW, meterRegistry);
+        warmUp(hedger, 500); // 상한이 없다면 헤지 50개분이 쌓였을 것
+
+        // 첫 요청이 응답하지 않는 상황에서 20건 -> 예산 10개 + 20건 * 0.1 = 최대 12건만 헤지
+        int burst = 20;
+        AtomicInteger hedgeAttempts = new AtomicInteger();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < burst; i++) {
+            AtomicInteger attempt = new AtomicInteger();
+            results.add(hedger.execute(() -> {
+                if (attempt.getAndIncrement() == 0) {
+                    return new CompletableFuture<>(); // 첫 요청은 멈춤
+                }
+                hedgeAttempts.incrementAndGet();
+                return CompletableFuture.completedFuture("hedged");
+            }));
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> hedgesSent() >= 10);
+        Thread.sleep(100); // 남은 헤지 타이머까지 모두 실행되도록
+
+        assertThat(hedgesSent()).isBetween(10.0, 12.0);
+        assertThat(hedgeAttempts.get()).isEqualTo((int) hedgesSent());
+        assertThat(results.stream().filter(CompletableFuture::isDone).count()).isEqualTo(hedgeAttempts.get());
+        assertThat(meterRegistry.get("ordering.hedge.won").counter().count()).isEqualTo(hedgesSent());
+    }
+
+    @Test
+    void failedFirstAttemptIsNotRetriedAsAHedge() throws Exception {
+        HedgingExecutor hedger = new HedgingExecutor("test", true, 95, 1, 100, WINDOW, meterRegistry);
+        warmUp(hedger, WINDOW);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = hedger.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("boom"));
+        });
+        Thread.sleep(50);
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(attempts).hasValue(1);
+        assertThat(hedgesSent()).isZero();
+    }
+
+    @Test
+    void resultFailsOnlyWhenEveryAttemptFailed() {
+        HedgingExecutor hedger = new HedgingExecutor("test", true, 95, 1, 100, WINDOW, meterRegistry);
+        warmUp(hedger, WINDOW);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<CompletableFuture<String>> attempt = () -> attempts.getAndIncrement() == 0
+                ? first
+                : CompletableFuture.failedFuture(new IllegalStateException("hedge failed"));
+
+        CompletableFuture<String> result = hedger.execute(attempt);
+        await().atMost(Duration.ofSeconds(5)).until(() -> hedgesSent() == 1);
+
+        // 헤지가 실패해도 첫 요청이 아직 진행 중이면 기다린다.
+        assertThat(result).isNotDone();
+        first.complete("late");
+        assertThat(result).isCompletedWithValue("late");
+    }
+
+    // 바로 응답하는 요청으로 응답 시간 샘플을 채워서 헤지 대기 시간이 계산되게 한다.
+    private static void warmUp(HedgingExecutor hedger, int requests) {
+        for (int i = 0; i < requests; i++) {
+            hedger.execute(() -> CompletableFuture.completedFuture("ok")).join();
+        }
+    }
+
+    private double hedgesSent() {
+        return meterRegistry.get("ordering.hedge.sent").counter().count();
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.playdata.orderingservice.common.limiter;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.circuitbreaker.NoFallbackAvailableException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final Request REQUEST = Request.create(Request.HttpMethod.GET, "/product/1",
+            Map.of(), null, StandardCharsets.UTF_8, null);
+
+    @Test
+    void congestionFailureCutsTheLimitByTenPercent() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 10, 200, 1.5);
+
+        fail(limiter, new FeignException.InternalServerError("500", REQUEST, null, null));
+        assertThat(limiter.getLimit()).isEqualTo(90);
+        fail(limiter, new RuntimeException(new SocketTimeoutException("read timed out")));
+        assertThat(limiter.getLimit()).isEqualTo(81);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void limitNeverDropsBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 10, 200, 1.5);
+
+        for (int i = 0; i < 50; i++) {
+            fail(limiter, new FeignException.ServiceUnavailable("503", REQUEST, null, null));
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void failuresThatAreNotCongestionOnlyReleaseTheSlot() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 10, 200, 1.5);
+
+        fail(limiter, new FeignException.NotFound("404", REQUEST, null, null));
+        fail(limiter, new NoFallbackAvailableException("no fallback",
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("product"))));
+        fail(limiter, BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("product")));
+        fail(limiter, new LimitExceededException("inner limiter"));
+        fail(limiter, new IllegalArgumentException("재고 부족!"));
+
+        assertThat(limiter.getLimit()).isEqualTo(100);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void wrappedCongestionIsRecognised() {
+        assertThat(AdaptiveConcurrencyLimiter.isCongestion(
+                new NoFallbackAvailableException("no fallback", new TimeoutException()))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isCongestion(new CompletionException(
+                new RetryableException(-1, "connect refused", Request.HttpMethod.GET, (Long) null, REQUEST)))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isCongestion(
+                new FeignException.BadRequest("400", REQUEST, null, null))).isFalse();
+    }
+
+    @Test
+    void asyncClientStatusErrorsAreClassifiedLikeFeign() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 10, 200, 1.5);
+
+        // 비동기 클라이언트(AsyncHttpSupport)는 상태 코드 오류를 HttpServerErrorException / HttpClientErrorException으로 던진다.
+        CompletableFuture<String> serverError = new CompletableFuture<>();
+        limiter.callAsync(() -> serverError);
+        serverError.completeExceptionally(new CompletionException(
+                new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)));
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        CompletableFuture<String> notFound = new CompletableFuture<>();
+        limiter.callAsync(() -> notFound);
+        notFound.completeExceptionally(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        assertThat(limiter.getLimit()).isEqualTo(90);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void responseDecodingFailureIsNotCongestion() {
+        assertThat(AdaptiveConcurrencyLimiter.isCongestion(new CompletionException(
+                new UncheckedIOException("응답 변환 실패", new JsonParseException(null, "unexpected token"))))).isFalse();
+    }
+
+    @Test
+    void errorDoesNotLeakASlot() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 1.5);
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.call(() -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void callsOverTheLimitAreDroppedWithoutRunning() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 1.5);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        limiter.callAsync(() -> pending);
+
+        assertThatThrownBy(() -> limiter.call(() -> "not called")).isInstanceOf(LimitExceededException.class);
+        assertThat(limiter.callAsync(() -> CompletableFuture.completedFuture("not called")))
+                .isCompletedExceptionally();
+        assertThat(limiter.getDropped()).isEqualTo(2);
+
+        pending.complete("done");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void asyncCongestionCutsTheLimitWhenTheFutureFails() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 10, 200, 1.5);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        limiter.callAsync(() -> pending);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+
+        pending.completeExceptionally(new TimeoutException());
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(90);
+    }
+
+    @Test
+    void saturatedSteadyLatencyGrowsTheLimitUpToMaximum() throws Exception {
+        // tolerance를 크게 주면 gradient = 1 -> limit + sqrt(limit) 쪽으로만 움직인다.
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 8, 100);
+
+        for (int round = 0; round < 30; round++) {
+            // 한도만큼 채운 뒤 한꺼번에 완료 -> 한도의 절반 이상을 쓰고 있을 때만 늘어난다.
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                CompletableFuture<String> call = new CompletableFuture<>();
+                limiter.callAsync(() -> call);
+                calls.add(call);
+            }
+            Thread.sleep(2);
+            calls.forEach(call -> call.complete("ok"));
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(8);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void lightLoadDoesNotGrowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.call(() -> "ok"); // 동시 호출 1건 < 한도의 절반
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    private static void fail(AdaptiveConcurrencyLimiter limiter, RuntimeException failure) {
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw failure;
+        })).isSameAs(failure);
+    }
+
+}
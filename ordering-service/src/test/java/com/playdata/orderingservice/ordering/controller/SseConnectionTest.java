@@ -0,0 +1,214 @@
+package com.playdata.orderingservice.ordering.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SseConnectionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final ManualExecutor executor = new ManualExecutor();
+    private final AtomicInteger closeCallbacks = new AtomicInteger();
+
+    @Test
+    void queuedEventsAreWrittenInOrderInOneWrite() {
+        SseConnection connection = connection(8, SseConnection.OverflowPolicy.DROP_OLDEST, 100, executor);
+
+        connection.offer(event("1"));
+        connection.offer(event("2"));
+        connection.offer(event("3"));
+        assertThat(executor.pending()).isEqualTo(1); // 연결마다 전송 작업은 하나만
+        executor.runAll();
+
+        assertThat(emitter.writes).hasSize(1);
+        assertThat(emitter.ids()).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void dropOldestKeepsTheNewestEvents() {
+        SseConnection connection = connection(2, SseConnection.OverflowPolicy.DROP_OLDEST, 100, executor);
+
+        connection.offer(event("1"));
+        connection.offer(event("2"));
+        assertThat(connection.offer(event("3"))).isTrue();
+        executor.runAll();
+
+        assertThat(emitter.ids()).containsExactly("2", "3");
+        assertThat(meterRegistry.get("sse.dropped").counter().count()).isEqualTo(1);
+        assertThat(connection.isClosed()).isFalse();
+    }
+
+    @Test
+    void tooManyConsecutiveDropsDisconnect() {
+        SseConnection connection = connection(1, SseConnection.OverflowPolicy.DROP_OLDEST, 2, executor);
+
+        connection.offer(event("1"));
+        assertThat(connection.offer(event("2"))).isTrue();
+        assertThat(connection.offer(event("3"))).isTrue();
+        assertThat(connection.offer(event("4"))).isFalse();
+
+        assertClosedOnce(connection);
+        assertThat(emitter.completed).isTrue();
+        assertThat(meterRegistry.get("sse.slow").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void disconnectPolicyClosesOnFirstOverflow() {
+        SseConnection connection = connection(1, SseConnection.OverflowPolicy.DISCONNECT, 100, executor);
+
+        connection.offer(event("1"));
+        assertThat(connection.offer(event("2"))).isFalse();
+
+        assertClosedOnce(connection);
+        assertThat(connection.offer(event("3"))).isFalse();
+        assertThat(connection.queueDepth()).isZero();
+    }
+
+    @Test
+    void sendFailureClosesTheConnection() {
+        emitter.failWith = new IOException("broken pipe");
+        SseConnection connection = connection(8, SseConnection.OverflowPolicy.DROP_OLDEST, 100, executor);
+
+        connection.offer(event("1"));
+        executor.runAll();
+
+        assertClosedOnce(connection);
+    }
+
+    @Test
+    void heartbeatIsSkippedWhileEventsAreQueued() {
+        SseConnection connection = connection(8, SseConnection.OverflowPolicy.DROP_OLDEST, 100, executor);
+
+        connection.offer(event("1"));
+        connection.heartbeat();
+
+        assertThat(connection.queueDepth()).isEqualTo(1);
+    }
+
+    @Test
+    void stalledSendIsDisconnectedWithoutWaitingForTheWrite() throws Exception {
+        emitter.block = new CountDownLatch(1);
+        Executor threads = Executors.newVirtualThreadPerTaskExecutor();
+        SseConnection connection = connection(8, SseConnection.OverflowPolicy.DROP_OLDEST, 100, threads);
+
+        connection.offer(event("1"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.sending.get() == 1);
+
+        assertThat(connection.closeIfSendStalled(TimeUnit.SECONDS.toNanos(60))).isFalse();
+        Thread.sleep(20);
+        assertThat(connection.closeIfSendStalled(TimeUnit.MILLISECONDS.toNanos(10))).isTrue();
+
+        // 쓰기는 아직 막혀 있어도 연결은 이미 정리됨
+        assertClosedOnce(connection);
+        assertThat(connection.offer(event("2"))).isFalse();
+        assertThat(meterRegistry.get("sse.slow").counter().count()).isEqualTo(1);
+
+        emitter.block.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.completed);
+        assertThat(connection.closeIfSendStalled(0)).isFalse();
+    }
+
+    @Test
+    void idleConnectionIsNotTreatedAsStalled() {
+        SseConnection connection = connection(8, SseConnection.OverflowPolicy.DROP_OLDEST, 100, executor);
+
+        assertThat(connection.closeIfSendStalled(0)).isFalse();
+        assertThat(connection.isClosed()).isFalse();
+    }
+
+    private void assertClosedOnce(SseConnection connection) {
+        assertThat(connection.isClosed()).isTrue();
+        connection.close();
+        assertThat(closeCallbacks).hasValue(1);
+    }
+
+    private SseConnection connection(int capacity, SseConnection.OverflowPolicy policy, int maxDrops,
+                                     Executor sendExecutor) {
+        return new SseConnection("admin@test.com", emitter, capacity, policy, maxDrops, sendExecutor,
+                meterRegistry.timer("sse.latency"), meterRegistry.counter("sse.dropped"),
+                meterRegistry.counter("sse.slow"), closeCallbacks::incrementAndGet);
+    }
+
+    private static SseEmitter.SseEventBuilder event(String id) {
+        return SseEmitter.event().id(id).name("new-order").data("order-" + id);
+    }
+
+    // 실행기에 올라온 작업을 테스트가 원할 때 실행
+    private static class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        int pending() {
+            return tasks.size();
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    // 쓰기 한 번마다 내용을 기록하는 emitter (실패/막힘 흉내 가능)
+    private static class RecordingEmitter extends SseEmitter {
+        final List<Set<ResponseBodyEmitter.DataWithMediaType>> writes = new ArrayList<>();
+        final AtomicInteger sending = new AtomicInteger();
+        volatile IOException failWith;
+        volatile CountDownLatch block;
+        volatile boolean completed;
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            sending.incrementAndGet();
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failWith != null) {
+                throw failWith;
+            }
+            writes.add(items);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> ids() {
+            return writes.stream()
+                    .flatMap(Set::stream)
+                    .map(data -> data.getData().toString())
+                    .filter(text -> text.startsWith("id:"))
+                    .map(text -> text.substring(3, text.indexOf('\n'))) // "id:1\nevent:new-order\ndata:"
+                    .toList();
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.playdata.orderingservice.ordering.controller;
+
+import com.playdata.orderingservice.common.auth.Role;
+import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import com.playdata.orderingservice.ordering.service.AdminPresenceService;
+import com.playdata.orderingservice.ordering.service.OrderNotificationDigester;
+import com.playdata.orderingservice.ordering.service.OrderNotificationLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class SseControllerTest {
+
+    private final OrderNotificationLog notificationLog = mock(OrderNotificationLog.class);
+    private final AdminPresenceService adminPresenceService = mock(AdminPresenceService.class);
+    // 구간마다 3건까지는 바로 전송
+    private final OrderNotificationDigester digester =
+            spy(new OrderNotificationDigester(new SimpleMeterRegistry(), true, 3, 2, 4));
+    // 실제 전송은 하지 않는다. (대기열에 들어가는 순서만 본다)
+    private final SseController controller = new SseController(new SimpleMeterRegistry(), adminPresenceService,
+            notificationLog, digester, task -> { });
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "queueCapacity", 16);
+        ReflectionTestUtils.setField(controller, "overflowPolicy", SseConnection.OverflowPolicy.DROP_OLDEST);
+        ReflectionTestUtils.setField(controller, "maxConsecutiveDrops", 100);
+        ReflectionTestUtils.setField(controller, "initialBacklog", 20);
+        controller.registerMetrics();
+        when(adminPresenceService.ownedBy(any())).thenAnswer(invocation -> Set.copyOf(invocation.getArgument(0)));
+    }
+
+    @Test
+    void heldNotificationsAreFlushedBeforeANewConnectionReadsTheBacklog() {
+        controller.subscribe(admin("a@test.com"), null, null);
+
+        // 5건이 몰려서 2건은 요약 구간에 남아 있는 상태
+        List<OrderNotificationLog.Entry> burst = entries(5);
+        when(notificationLog.readNew()).thenReturn(burst);
+        controller.handleOrderNotifications(List.of(MessageBuilder.withPayload(burst.get(0).event()).build()));
+        clearInvocations(digester, adminPresenceService, notificationLog);
+
+        // 그 사이에 다른 관리자가 접속: 놓친 알림(since)은 cursor까지 읽으므로 남아 있던 2건도 포함된다.
+        controller.subscribe(admin("b@test.com"), burst.get(0).id(), null);
+
+        // 요약을 먼저 기존 연결로 보내고 -> 새 연결 등록 -> 놓친 알림. 새 연결이 같은 알림을 요약으로 또 받지 않는다.
+        InOrder order = inOrder(digester, adminPresenceService, notificationLog);
+        order.verify(digester).closeWindow();
+        order.verify(adminPresenceService).register("b@test.com");
+        order.verify(notificationLog).since(eq(burst.get(0).id()), anyInt());
+        assertThat(digester.closeWindow()).isNull();
+    }
+
+    @Test
+    void firstConnectionWithNothingHeldReadsTheBacklogAsBefore() {
+        controller.subscribe(admin("a@test.com"), null, null);
+
+        InOrder order = inOrder(digester, notificationLog);
+        order.verify(digester).closeWindow();
+        order.verify(notificationLog).since(isNull(), eq(20));
+    }
+
+    private static TokenUserInfo admin(String email) {
+        return new TokenUserInfo(email, Role.ADMIN, 1L);
+    }
+
+    private static List<OrderNotificationLog.Entry> entries(int count) {
+        List<OrderNotificationLog.Entry> entries = new ArrayList<>();
+        for (long orderId = 1; orderId <= count; orderId++) {
+            entries.add(new OrderNotificationLog.Entry("1700000000000-" + orderId, OrderNotificationEvent.builder()
+                    .orderId(orderId)
+                    .totalItems(1)
+                    .orderTime(LocalDateTime.of(2024, 6, 1, 12, 0))
+                    .orderItems(List.of())
+                    .build()));
+        }
+        return entries;
+    }
+
+}
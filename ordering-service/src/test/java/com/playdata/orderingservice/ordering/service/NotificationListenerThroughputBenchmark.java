@@ -0,0 +1,167 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.common.configs.RabbitMQConfig;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/*
+관리자 주문 알림 리스너 처리량 비교: 메시지마다 호출 vs 배치 리스너 (user-023)
+
+실제 RabbitMQ(Testcontainers)의 큐에 주문 알림 MESSAGES건을 쌓아 두고, 리스너가 모두 비우는 데 걸린 시간을 잰다.
+- per-message: 예전 설정 (rabbitListenerContainerFactory) -> 메시지 한 건마다 리스너 호출 + 관리자마다 쓰기 한 번
+- batch: 운영 설정 (notificationListenerContainerFactory, batch-size 50) -> 묶음 하나마다 관리자마다 쓰기 한 번
+
+SSE 쓰기 + flush 한 번에 드는 시간은 WRITE_COST_MICROS로 흉내 낸다. (관리자 ADMINS명)
+
+실행: ./gradlew benchmark --tests '*NotificationListenerThroughputBenchmark'
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationListenerThroughputBenchmark {
+
+    private static final int MESSAGES = 20_000;
+    private static final int ADMINS = 3;
+    private static final long WRITE_COST_MICROS = 100;
+    private static final String QUEUE = "bench.admin.notifications";
+
+    @Container
+    static final RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.13-alpine");
+
+    private static CachingConnectionFactory connectionFactory;
+    private static RabbitAdmin rabbitAdmin;
+
+    private final RabbitMQConfig config = new RabbitMQConfig();
+    private final Jackson2JsonMessageConverter converter = config.jsonMessageConverter();
+    private final SimpleRabbitListenerContainerFactoryConfigurer configurer
+            = new SimpleRabbitListenerContainerFactoryConfigurer(new RabbitProperties());
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new CachingConnectionFactory(rabbit.getHost(), rabbit.getAmqpPort());
+        connectionFactory.setUsername(rabbit.getAdminUsername());
+        connectionFactory.setPassword(rabbit.getAdminPassword());
+        rabbitAdmin = new RabbitAdmin(connectionFactory);
+        rabbitAdmin.declareQueue(new Queue(QUEUE, false));
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void batchListenerDrainsTheQueueFaster() {
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger writes = new AtomicInteger();
+
+        SimpleRabbitListenerContainerFactory perMessageFactory
+                = config.rabbitListenerContainerFactory(configurer, connectionFactory);
+        long perMessageNanos = drain(perMessageFactory, (MessageListener) message -> {
+            converter.fromMessage(message);
+            writeToAdmins(writes);
+            received.incrementAndGet();
+        }, received);
+        int perMessageWrites = writes.getAndSet(0);
+        received.set(0);
+
+        SimpleRabbitListenerContainerFactory batchFactory
+                = config.notificationListenerContainerFactory(configurer, connectionFactory, 1, 1, 250, 50, 100);
+        long batchNanos = drain(batchFactory, (BatchMessageListener) messages -> {
+            messages.forEach(converter::fromMessage);
+            writeToAdmins(writes); // 묶음 전체를 관리자마다 한 번의 쓰기로
+            received.addAndGet(messages.size());
+        }, received);
+        int batchWrites = writes.get();
+
+        System.out.printf("notification listener, %d messages, %d admins, write cost %dus%n",
+                MESSAGES, ADMINS, WRITE_COST_MICROS);
+        print("per-message", perMessageNanos, perMessageWrites);
+        print("batch", batchNanos, batchWrites);
+
+        assertThat(perMessageWrites).isEqualTo(MESSAGES * ADMINS);
+        assertThat(batchWrites).isLessThan(perMessageWrites / 10);
+        assertThat(batchNanos).isLessThan(perMessageNanos);
+    }
+
+    // 큐에 MESSAGES건을 쌓은 뒤 리스너를 시작해서, 모두 받을 때까지 걸린 시간
+    private long drain(SimpleRabbitListenerContainerFactory factory, MessageListener listener, AtomicInteger received) {
+        publish();
+
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setQueueNames(QUEUE);
+        endpoint.setMessageListener(listener);
+        SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint);
+        container.afterPropertiesSet();
+
+        long started = System.nanoTime();
+        container.start();
+        try {
+            await().atMost(Duration.ofMinutes(5)).pollInterval(Duration.ofMillis(10))
+                    .until(() -> received.get() >= MESSAGES);
+            return System.nanoTime() - started;
+        } finally {
+            container.stop();
+        }
+    }
+
+    private void publish() {
+        rabbitAdmin.purgeQueue(QUEUE);
+        RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(converter);
+        for (long orderId = 1; orderId <= MESSAGES; orderId++) {
+            rabbitTemplate.convertAndSend("", QUEUE, OrderNotificationEvent.builder()
+                    .orderId(orderId)
+                    .customerEmail("user@test.com")
+                    .orderStatus("ORDERED")
+                    .totalItems(1)
+                    .orderTime(LocalDateTime.now())
+                    .orderItems(List.of())
+                    .build());
+        }
+        await().atMost(Duration.ofMinutes(1))
+                .until(() -> rabbitAdmin.getQueueInfo(QUEUE).getMessageCount() == MESSAGES);
+    }
+
+    // 관리자마다 SSE 쓰기 + flush 한 번
+    private static void writeToAdmins(AtomicInteger writes) {
+        for (int admin = 0; admin < ADMINS; admin++) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(WRITE_COST_MICROS));
+            writes.incrementAndGet();
+        }
+    }
+
+    private static void print(String mode, long nanos, int writes) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%-12s %8.0f msg/s  (%.2fs, SSE writes %d)%n", mode, MESSAGES / seconds, seconds, writes);
+    }
+
+}
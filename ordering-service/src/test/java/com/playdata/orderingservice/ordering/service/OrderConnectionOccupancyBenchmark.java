@@ -0,0 +1,222 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.common.auth.Role;
+import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.ordering.controller.OrderingController;
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.ordering.dto.ProductResDto;
+import com.playdata.orderingservice.support.JdbcActivityRecorder;
+import com.playdata.orderingservice.support.OrderingJpaTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.StandaloneMockMvcBuilder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.handler.WebRequestHandlerInterceptorAdapter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.playdata.orderingservice.support.OrderBenchmarks.orderLines;
+import static com.playdata.orderingservice.support.OrderBenchmarks.placeConcurrently;
+import static com.playdata.orderingservice.support.OrderBenchmarks.warmUp;
+import static com.playdata.orderingservice.support.OrderingJpaTestConfig.reserveAll;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+주문 한 건당 DB 커넥션 점유 비교 (user-004)
+
+product-service 재고 예약이 REMOTE_LATENCY_MS만큼 걸린다고 보고 주문을 동시에 넣는다.
+- before: 예전처럼 주문 흐름 전체를 트랜잭션 하나로 감싼 경우 (클래스 단위 @Transactional과 같은 경계)
+- after: 지금의 createOrder (원격 호출은 트랜잭션 밖, 저장만 짧은 트랜잭션)
+
+커넥션-ms/주문: 주문 한 건이 커넥션을 빌려 쥐고 있던 시간의 합
+최대 동시 점유: 같은 순간에 빌려 간 커넥션 수의 최대값 (= 필요한 풀 크기)
+
+웹 요청 단위(MockMvc)로도 잰다. 서비스를 직접 부르면 OSIV(Open Session In View)를 거치지 않기 때문.
+OSIV가 켜져 있으면 요청 중 처음 쓴 커넥션을 응답이 끝날 때까지 쥐고 있어서
+주문 취소(재고 복구), 내 주문 조회(상품 정보)의 원격 호출 시간까지 커넥션을 점유한다.
+- OSIV 켬: 스프링 부트 기본값 (OpenEntityManagerInViewInterceptor)
+- OSIV 끔: application.yml의 spring.jpa.open-in-view: false
+
+실행: ./gradlew benchmark --tests '*OrderConnectionOccupancyBenchmark'
+ */
+@Tag("benchmark")
+@OrderingJpaTest
+@Import({OrderingService.class, OrderNotificationService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderConnectionOccupancyBenchmark {
+
+    private static final long REMOTE_LATENCY_MS = 50;
+    private static final int ORDERS = 200;
+    private static final int THREADS = 16;
+    private static final int LINES_PER_ORDER = 5;
+    private static final int WEB_REQUESTS = 20;
+
+    @Autowired
+    OrderingService orderingService;
+    @Autowired
+    ProductServiceClient productServiceClient;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcActivityRecorder recorder;
+    @Autowired
+    ProductInfoCache productInfoCache;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Value("${spring.jpa.open-in-view:true}")
+    boolean openInView;
+
+    private final TokenUserInfo user = new TokenUserInfo("bench@test.com", Role.USER, 1L);
+    private final List<OrderingSaveReqDto> dtoList = orderLines(LINES_PER_ORDER);
+
+    @BeforeEach
+    void setUp() {
+        when(productServiceClient.reserveProducts(anyList())).thenAnswer(reserveAll(REMOTE_LATENCY_MS));
+    }
+
+    @Test
+    void connectionOccupancyPerOrder() throws Exception {
+        warmUp(() -> orderingService.createOrder(dtoList, user));
+
+        Result before = run(() -> transactionTemplate.executeWithoutResult(
+                status -> orderingService.createOrder(dtoList, user)));
+        Result after = run(() -> orderingService.createOrder(dtoList, user));
+
+        System.out.printf("%n[user-004] 원격 지연 %dms, 주문 %d건, 동시 %d스레드%n", REMOTE_LATENCY_MS, ORDERS, THREADS);
+        System.out.printf("%-8s %16s %16s %14s%n", "", "커넥션-ms/주문", "최대 동시 점유", "처리 시간(ms)");
+        System.out.println(before.format("before"));
+        System.out.println(after.format("after"));
+
+        // 트랜잭션으로 감싸면 원격 호출 시간 동안 커넥션을 쥐고 있다.
+        assertThat(before.holdMsPerOrder()).isGreaterThanOrEqualTo(REMOTE_LATENCY_MS);
+        // 원격 호출을 밖으로 빼면 커넥션은 저장하는 동안만
+        assertThat(after.holdMsPerOrder()).isLessThan(REMOTE_LATENCY_MS);
+        assertThat(after.maxInUse()).isLessThanOrEqualTo(before.maxInUse());
+    }
+
+    @Test
+    void connectionOccupancyPerWebRequest() throws Exception {
+        // 측정 대상은 application.yml의 설정 그대로
+        assertThat(openInView).isFalse();
+
+        doAnswer(invocation -> {
+            Thread.sleep(REMOTE_LATENCY_MS);
+            return ResponseEntity.ok().build();
+        }).when(productServiceClient).cancelProduct(anyMap());
+        when(productInfoCache.getProducts(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(REMOTE_LATENCY_MS);
+            Collection<Long> productIds = invocation.getArgument(0);
+            return productIds.stream().collect(Collectors.toMap(Function.identity(),
+                    id -> ProductResDto.builder().id(id).name("상품" + id).build()));
+        });
+
+        // 취소할 주문은 측정 전에 미리 만들어 둔다.
+        List<Long> toCancel = new ArrayList<>();
+        for (int i = 0; i < 2 * WEB_REQUESTS; i++) {
+            toCancel.add(orderingService.createOrder(dtoList, user).getId());
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, "", List.of()));
+        try {
+            MockMvc withOsiv = mockMvc(true);
+            MockMvc withoutOsiv = mockMvc(openInView);
+            // 워밍업
+            withoutOsiv.perform(get("/order/my-order")).andExpect(status().isOk());
+
+            double cancelWithOsiv = holdMsPerRequest(withOsiv, toCancel.subList(0, WEB_REQUESTS).stream()
+                    .map(id -> patch("/order/{id}", id)).toList());
+            double cancelWithoutOsiv = holdMsPerRequest(withoutOsiv, toCancel.subList(WEB_REQUESTS, 2 * WEB_REQUESTS).stream()
+                    .map(id -> patch("/order/{id}", id)).toList());
+            List<MockHttpServletRequestBuilder> myOrders = new ArrayList<>();
+            for (int i = 0; i < WEB_REQUESTS; i++) {
+                myOrders.add(get("/order/my-order"));
+            }
+            double myOrderWithOsiv = holdMsPerRequest(withOsiv, myOrders);
+            double myOrderWithoutOsiv = holdMsPerRequest(withoutOsiv, myOrders);
+
+            System.out.printf("%n[user-004] 웹 요청 %d건씩, 원격 지연 %dms (커넥션-ms/요청)%n", WEB_REQUESTS, REMOTE_LATENCY_MS);
+            System.out.printf("%-22s %12s %12s%n", "", "OSIV 켬", "OSIV 끔");
+            System.out.printf("%-22s %12.1f %12.1f%n", "PATCH /order/{id}", cancelWithOsiv, cancelWithoutOsiv);
+            System.out.printf("%-22s %12.1f %12.1f%n", "GET /order/my-order", myOrderWithOsiv, myOrderWithoutOsiv);
+
+            // OSIV가 켜져 있으면 원격 호출 동안에도 커넥션을 쥐고 있다.
+            assertThat(cancelWithOsiv).isGreaterThanOrEqualTo(REMOTE_LATENCY_MS);
+            assertThat(myOrderWithOsiv).isGreaterThanOrEqualTo(REMOTE_LATENCY_MS);
+            // 끄면 쿼리하는 동안만 (지연 로딩 없이 응답까지 만들어진다)
+            assertThat(cancelWithoutOsiv).isLessThan(REMOTE_LATENCY_MS);
+            assertThat(myOrderWithoutOsiv).isLessThan(REMOTE_LATENCY_MS);
+        } finally {
+            SecurityContextHolder.clearContext();
+            reset(productInfoCache); // 같은 컨텍스트를 쓰는 다른 테스트에 지연이 남지 않도록
+        }
+    }
+
+    // 실제 컨트롤러 + (켤 경우) 스프링 부트가 OSIV로 등록하는 것과 같은 인터셉터
+    private MockMvc mockMvc(boolean openInView) {
+        StandaloneMockMvcBuilder builder = MockMvcBuilders
+                .standaloneSetup(new OrderingController(orderingService, mock(OrderIntakeSaga.class)))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver());
+        if (openInView) {
+            OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+            interceptor.setEntityManagerFactory(entityManagerFactory);
+            builder.addInterceptors(new WebRequestHandlerInterceptorAdapter(interceptor));
+        }
+        return builder.build();
+    }
+
+    private double holdMsPerRequest(MockMvc mockMvc, List<MockHttpServletRequestBuilder> requests) throws Exception {
+        recorder.reset();
+        for (MockHttpServletRequestBuilder request : requests) {
+            mockMvc.perform(request).andExpect(status().isOk());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(recorder.connectionHoldNanos()) / (double) requests.size();
+    }
+
+    private Result run(Runnable placeOrder) throws Exception {
+        recorder.reset();
+        long elapsedMs = placeConcurrently(Executors.newFixedThreadPool(THREADS), ORDERS, placeOrder);
+        return new Result(TimeUnit.NANOSECONDS.toMillis(recorder.connectionHoldNanos()) / (double) ORDERS,
+                recorder.maxInUse(), elapsedMs);
+    }
+
+    private record Result(double holdMsPerOrder, int maxInUse, long elapsedMs) {
+        String format(String label) {
+            return String.format("%-8s %16.1f %16d %14d", label, holdMsPerOrder, maxInUse, elapsedMs);
+        }
+    }
+
+}
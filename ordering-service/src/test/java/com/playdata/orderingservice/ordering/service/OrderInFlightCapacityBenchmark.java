@@ -0,0 +1,132 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.common.auth.Role;
+import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.ordering.entity.OrderStatus;
+import com.playdata.orderingservice.support.OrderingJpaTest;
+import com.playdata.orderingservice.support.ProductionResilienceConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.playdata.orderingservice.support.OrderBenchmarks.orderLines;
+import static com.playdata.orderingservice.support.OrderBenchmarks.placeConcurrently;
+import static com.playdata.orderingservice.support.OrderBenchmarks.warmUp;
+import static com.playdata.orderingservice.support.OrderingJpaTestConfig.reserveAll;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/*
+동시에 처리 중인(in-flight) 주문 수 비교: 플랫폼 스레드 vs 가상 스레드 (user-013)
+
+톰캣 요청 스레드를 흉내 내서 주문 요청을 한꺼번에 넣는다.
+- platform: 톰캣 기본 설정처럼 플랫폼 스레드 TOMCAT_MAX_THREADS개 (server.tomcat.threads.max 기본값)
+- virtual: vthreads 프로필처럼 요청마다 가상 스레드
+
+서킷 브레이커/벌크헤드/TimeLimiter/리미터는 운영 설정 그대로 (ProductionResilienceConfig)
+product-service 재고 예약이 REMOTE_LATENCY_MS만큼 걸린다고 보고,
+그 호출 안에 동시에 들어와 있는 주문 수의 최대값, 완료/보류 건수, 전체 처리 시간을 잰다.
+
+요청 스레드를 늘려도 동시 재고 예약은 벌크헤드(productServiceUpdate)와 리미터 한도를 넘지 못하고,
+넘치는 주문은 기다리지 않고 바로 보류(PENDING_PROD_STOCK_UPDATE)된다. -> 한도를 정하는 것은 스레드 수가 아니다.
+
+실행: ./gradlew benchmark --tests '*OrderInFlightCapacityBenchmark'
+ */
+@Tag("benchmark")
+@OrderingJpaTest
+@Import({OrderingService.class, OrderNotificationService.class, ProductionResilienceConfig.class})
+@ActiveProfiles(ProductionResilienceConfig.PROFILE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderInFlightCapacityBenchmark {
+
+    private static final long REMOTE_LATENCY_MS = 200;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int ORDERS = 1000;
+
+    @Autowired
+    OrderingService orderingService;
+    @Autowired
+    ProductServiceClient productServiceClient;
+
+    @Value("${resilience4j.bulkhead.instances.productServiceUpdate.max-concurrent-calls}")
+    int updateBulkheadLimit;
+    @Value("${ordering.product.limiter.max-limit}")
+    int limiterMaxLimit;
+
+    private final TokenUserInfo user = new TokenUserInfo("bench@test.com", Role.USER, 1L);
+    private final List<OrderingSaveReqDto> dtoList = orderLines(2);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger ordered = new AtomicInteger();
+    private final AtomicInteger parked = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(productServiceClient.reserveProducts(anyList())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                return reserveAll(REMOTE_LATENCY_MS).answer(invocation);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    void maxInFlightOrders() throws Exception {
+        warmUp(this::placeOrder);
+
+        Result platform = run(() -> Executors.newFixedThreadPool(TOMCAT_MAX_THREADS));
+        Result virtual = run(Executors::newVirtualThreadPerTaskExecutor);
+
+        int cap = Math.min(updateBulkheadLimit, limiterMaxLimit);
+        System.out.printf("%n[user-013] 원격 지연 %dms, 주문 %d건 동시 요청%n", REMOTE_LATENCY_MS, ORDERS);
+        System.out.printf("운영 한도: 벌크헤드(productServiceUpdate) %d, 리미터 최대 %d -> 동시 재고 예약 상한 %d%n",
+                updateBulkheadLimit, limiterMaxLimit, cap);
+        System.out.printf("%-10s %16s %8s %8s %14s%n", "", "최대 in-flight", "완료", "보류", "처리 시간(ms)");
+        System.out.println(platform.format("platform"));
+        System.out.println(virtual.format("virtual"));
+
+        // 요청 스레드가 몇 개든 동시 재고 예약은 운영 한도까지만
+        assertThat(platform.maxInFlight()).isLessThanOrEqualTo(cap);
+        assertThat(virtual.maxInFlight()).isLessThanOrEqualTo(cap);
+        // 한도를 넘친 주문은 빠지지 않고 전부 보류로 남는다.
+        assertThat(platform.ordered() + platform.parked()).isEqualTo(ORDERS);
+        assertThat(virtual.ordered() + virtual.parked()).isEqualTo(ORDERS);
+    }
+
+    private void placeOrder() {
+        OrderStatus status = orderingService.createOrder(dtoList, user).getOrderStatus();
+        (status == OrderStatus.ORDERED ? ordered : parked).incrementAndGet();
+    }
+
+    private Result run(Supplier<ExecutorService> requestThreads) throws Exception {
+        maxInFlight.set(0);
+        ordered.set(0);
+        parked.set(0);
+        long elapsedMs = placeConcurrently(requestThreads.get(), ORDERS, this::placeOrder);
+        return new Result(maxInFlight.get(), ordered.get(), parked.get(), elapsedMs);
+    }
+
+    private record Result(int maxInFlight, int ordered, int parked, long elapsedMs) {
+        String format(String label) {
+            return String.format("%-10s %16d %8d %8d %14d", label, maxInFlight, ordered, parked, elapsedMs);
+        }
+    }
+
+}
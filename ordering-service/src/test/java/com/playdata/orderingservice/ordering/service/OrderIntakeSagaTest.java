@@ -0,0 +1,179 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.common.auth.Role;
+import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.common.dto.CommonResDto;
+import com.playdata.orderingservice.ordering.dto.OrderAcceptedEvent;
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.ordering.dto.ProductReserveResDto;
+import com.playdata.orderingservice.ordering.dto.ProductResDto;
+import com.playdata.orderingservice.ordering.entity.OrderStatus;
+import com.playdata.orderingservice.ordering.entity.Ordering;
+import com.playdata.orderingservice.ordering.repository.OrderOutboxRepository;
+import com.playdata.orderingservice.ordering.repository.OrderingRepository;
+import com.playdata.orderingservice.support.OrderingJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 비동기 접수 사가: 재고 부족 거절과 보상 분기
+@OrderingJpaTest
+@Import({OrderingService.class, OrderNotificationService.class, OrderIntakeSaga.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIntakeSagaTest {
+
+    @Autowired
+    OrderIntakeSaga saga;
+    @Autowired
+    OrderingService orderingService;
+    @Autowired
+    OrderingRepository orderingRepository;
+    @Autowired
+    OrderOutboxRepository outboxRepository;
+    @Autowired
+    ProductServiceClient productServiceClient;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private final TokenUserInfo user = new TokenUserInfo("user@test.com", Role.USER, 7L);
+
+    @BeforeEach
+    void setUp() {
+        reset(productServiceClient);
+    }
+
+    @Test
+    void reservedOrderIsConfirmedWithItsNotification() {
+        when(productServiceClient.reserveProducts(anyList())).thenReturn(reserveResult(
+                ProductReserveResDto.ReserveResult.RESERVED, ProductReserveResDto.ReserveResult.RESERVED));
+        Ordering order = saga.accept(lines(), user);
+
+        saga.onOrderAccepted(new OrderAcceptedEvent(order.getId()));
+
+        Ordering reloaded = reload(order);
+        assertThat(reloaded.getOrderStatus()).isEqualTo(OrderStatus.ORDERED);
+        assertThat(reloaded.getLeaseOwner()).isNull();
+        assertThat(notificationsFor(order)).isEqualTo(1);
+    }
+
+    @Test
+    void outOfStockRejectsTheOrderWithoutNotification() {
+        // 한 번에 예약하는 방식: product-service가 전부 취소해 둔 상태라 되돌릴 재고가 없다.
+        when(productServiceClient.reserveProducts(anyList())).thenReturn(reserveResult(
+                ProductReserveResDto.ReserveResult.NOT_APPLIED, ProductReserveResDto.ReserveResult.OUT_OF_STOCK));
+        Ordering order = saga.accept(lines(), user);
+
+        saga.onOrderAccepted(new OrderAcceptedEvent(order.getId()));
+
+        Ordering reloaded = reload(order);
+        assertThat(reloaded.getOrderStatus()).isEqualTo(OrderStatus.REJECTED);
+        assertThat(reloaded.getLeaseOwner()).isNull();
+        assertThat(notificationsFor(order)).isZero();
+        verify(productServiceClient, never()).cancelProduct(anyMap());
+    }
+
+    @Test
+    void outOfStockOnALaterLineGivesBackTheLinesAlreadyDeducted() {
+        // 줄 단위 방식: 1번 상품은 차감된 뒤 2번 상품에서 재고 부족
+        ReflectionTestUtils.setField(orderingService, "batchReserve", false);
+        try {
+            when(productServiceClient.findById(1L)).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", product(1L, 10)));
+            when(productServiceClient.findById(2L)).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", product(2L, 0)));
+            when(productServiceClient.decreaseQuantity(any())).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", true));
+            Ordering order = saga.accept(lines(), user);
+
+            saga.onOrderAccepted(new OrderAcceptedEvent(order.getId()));
+
+            assertThat(reload(order).getOrderStatus()).isEqualTo(OrderStatus.REJECTED);
+            verify(productServiceClient).cancelProduct(Map.of(1L, 2));
+        } finally {
+            ReflectionTestUtils.setField(orderingService, "batchReserve", true);
+        }
+    }
+
+    @Test
+    void reservationIsGivenBackWhenTheLeaseIsLostBeforeConfirming() {
+        Ordering order = saga.accept(lines(), user);
+        when(productServiceClient.reserveProducts(anyList())).thenAnswer(invocation -> {
+            // 예약이 오래 걸리는 사이 임대가 만료되어 재처리 스케줄러가 주문을 가져감
+            LocalDateTime later = LocalDateTime.now().plusMinutes(10);
+            transactionTemplate.executeWithoutResult(status -> orderingRepository.claimForRetry(
+                    List.of(order.getId()), List.of(OrderStatus.ACCEPTED), "scheduler", later.plusMinutes(5), later));
+            return reserveResult(
+                    ProductReserveResDto.ReserveResult.RESERVED, ProductReserveResDto.ReserveResult.RESERVED);
+        });
+
+        saga.onOrderAccepted(new OrderAcceptedEvent(order.getId()));
+
+        // 결과는 저장하지 않고(주문은 스케줄러 몫), 이번에 차감한 재고는 되돌린다.
+        Ordering reloaded = reload(order);
+        assertThat(reloaded.getOrderStatus()).isEqualTo(OrderStatus.ACCEPTED);
+        assertThat(reloaded.getLeaseOwner()).isEqualTo("scheduler");
+        assertThat(notificationsFor(order)).isZero();
+        verify(productServiceClient).cancelProduct(Map.of(1L, 2, 2L, 1));
+    }
+
+    @Test
+    void duplicateMessageIsIgnoredOnceTheOrderIsProcessed() {
+        when(productServiceClient.reserveProducts(anyList())).thenReturn(reserveResult(
+                ProductReserveResDto.ReserveResult.RESERVED, ProductReserveResDto.ReserveResult.RESERVED));
+        Ordering order = saga.accept(lines(), user);
+
+        saga.onOrderAccepted(new OrderAcceptedEvent(order.getId()));
+        saga.onOrderAccepted(new OrderAcceptedEvent(order.getId())); // 아웃박스 재발송
+
+        verify(productServiceClient).reserveProducts(anyList());
+        assertThat(notificationsFor(order)).isEqualTo(1);
+    }
+
+    // 상품 1번 2개, 상품 2번 1개
+    private static List<OrderingSaveReqDto> lines() {
+        return List.of(
+                OrderingSaveReqDto.builder().productId(1L).productQuantity(2).build(),
+                OrderingSaveReqDto.builder().productId(2L).productQuantity(1).build());
+    }
+
+    private static CommonResDto<List<ProductReserveResDto>> reserveResult(ProductReserveResDto.ReserveResult first,
+                                                                           ProductReserveResDto.ReserveResult second) {
+        return new CommonResDto<>(HttpStatus.OK, "ok", List.of(
+                ProductReserveResDto.builder().productId(1L).requestedQuantity(2).result(first).build(),
+                ProductReserveResDto.builder().productId(2L).requestedQuantity(1).result(second).build()));
+    }
+
+    private static ProductResDto product(Long id, int stockQuantity) {
+        return ProductResDto.builder().id(id).name("상품" + id).stockQuantity(stockQuantity).build();
+    }
+
+    private Ordering reload(Ordering order) {
+        return orderingRepository.findById(order.getId()).orElseThrow();
+    }
+
+    // 관리자 알림(order.created) 아웃박스 행 수
+    private long notificationsFor(Ordering order) {
+        return outboxRepository.findAll().stream()
+                .filter(outbox -> order.getId().equals(outbox.getOrderId()))
+                .filter(outbox -> "order.created".equals(outbox.getRoutingKey()))
+                .count();
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.ordering.dto.OrderNotificationDigest;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderNotificationDigesterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 구간마다 3건까지는 바로 전송, 요약에는 주문 id 4개까지
+    private final OrderNotificationDigester digester = new OrderNotificationDigester(meterRegistry, true, 3, 2, 4);
+
+    private long nextOrderId = 1;
+
+    @Test
+    void quietWindowSendsEverythingImmediately() {
+        List<OrderNotificationLog.Entry> entries = entries(2);
+
+        assertThat(digester.admit(entries)).containsExactlyElementsOf(entries);
+        assertThat(digester.closeWindow()).isNull();
+    }
+
+    @Test
+    void notificationsOverTheWindowAllowanceAreHeldForTheDigest() {
+        List<OrderNotificationLog.Entry> first = entries(2);
+        List<OrderNotificationLog.Entry> second = entries(3);
+
+        assertThat(digester.admit(first)).containsExactlyElementsOf(first);
+        // 남은 한도는 1건 -> 첫 번째만 바로, 나머지 두 건은 요약으로
+        assertThat(digester.admit(second)).containsExactly(second.get(0));
+        assertThat(digester.admit(entries(1))).isEmpty();
+
+        OrderNotificationDigester.Digest digest = digester.closeWindow();
+        assertThat(digest.digest().getOrderCount()).isEqualTo(3);
+        assertThat(digest.digest().getOrderIds()).containsExactly(4L, 5L, 6L);
+        assertThat(digest.lastEventId()).isEqualTo(id(6)); // 재연결하면 요약에 포함된 마지막 알림 다음부터
+        assertThat(meterRegistry.get("ordering.sse.notifications").tag("mode", "immediate").counter().count())
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("ordering.sse.notifications").tag("mode", "digested").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void closingTheWindowStartsANewAllowance() {
+        digester.admit(entries(5));
+        assertThat(digester.closeWindow()).isNotNull();
+
+        List<OrderNotificationLog.Entry> next = entries(3);
+        assertThat(digester.admit(next)).containsExactlyElementsOf(next);
+        assertThat(digester.closeWindow()).isNull(); // 모아둔 것이 없으면 요약도 없다.
+        assertThat(meterRegistry.get("ordering.sse.digests").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledDigesterNeverHoldsNotifications() {
+        OrderNotificationDigester disabled = new OrderNotificationDigester(meterRegistry, false, 3, 2, 4);
+        List<OrderNotificationLog.Entry> burst = entries(50);
+
+        assertThat(disabled.admit(burst)).containsExactlyElementsOf(burst);
+        assertThat(disabled.closeWindow()).isNull();
+        assertThat(disabled.shouldSummarize(50)).isFalse();
+    }
+
+    @Test
+    void missedNotificationsAreSummarizedOnlyAboveTheWindowAllowance() {
+        assertThat(digester.shouldSummarize(3)).isFalse();
+        assertThat(digester.shouldSummarize(4)).isTrue();
+    }
+
+    @Test
+    void summaryAddsUpItemsAndRanksProducts() {
+        List<OrderNotificationLog.Entry> entries = new ArrayList<>();
+        entries.add(entry(10L, NOW.plusSeconds(2), item(1L, 1), item(2L, 5)));
+        entries.add(entry(7L, NOW, item(1L, 2)));
+        entries.add(entry(12L, NOW.plusSeconds(1), item(3L, 1)));
+        entries.add(entry(8L, NOW.plusSeconds(3), item(2L, 1)));
+        entries.add(entry(9L, NOW.plusSeconds(4), item(3L, 1)));
+
+        OrderNotificationDigest digest = digester.summarize(entries);
+
+        assertThat(digest.getOrderCount()).isEqualTo(5);
+        assertThat(digest.getTotalItems()).isEqualTo(11);
+        assertThat(digest.getTopProducts()).extracting(OrderNotificationDigest.ProductCount::getProductId)
+                .containsExactly(2L, 1L); // 상위 2개 (6개, 3개)
+        assertThat(digest.getOrderIds()).containsExactly(10L, 7L, 12L, 8L);
+        assertThat(digest.isOrderIdsTruncated()).isTrue();
+        assertThat(digest.getFirstOrderId()).isEqualTo(7L);
+        assertThat(digest.getLastOrderId()).isEqualTo(12L);
+        assertThat(digest.getFromTime()).isEqualTo(NOW);
+        assertThat(digest.getToTime()).isEqualTo(NOW.plusSeconds(4));
+    }
+
+    private List<OrderNotificationLog.Entry> entries(int count) {
+        List<OrderNotificationLog.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long orderId = nextOrderId++;
+            entries.add(new OrderNotificationLog.Entry(id(orderId), OrderNotificationEvent.builder()
+                    .orderId(orderId)
+                    .totalItems(1)
+                    .orderTime(NOW)
+                    .orderItems(List.of(item(1L, 1)))
+                    .build()));
+        }
+        return entries;
+    }
+
+    private static OrderNotificationLog.Entry entry(Long orderId, LocalDateTime orderTime,
+                                                    OrderNotificationEvent.OrderItemInfo... items) {
+        List<OrderNotificationEvent.OrderItemInfo> itemList = List.of(items);
+        return new OrderNotificationLog.Entry(id(orderId), OrderNotificationEvent.builder()
+                .orderId(orderId)
+                .totalItems(itemList.stream().mapToInt(OrderNotificationEvent.OrderItemInfo::getQuantity).sum())
+                .orderTime(orderTime)
+                .orderItems(itemList)
+                .build());
+    }
+
+    private static OrderNotificationEvent.OrderItemInfo item(Long productId, int quantity) {
+        return OrderNotificationEvent.OrderItemInfo.builder().productId(productId).quantity(quantity).build();
+    }
+
+    // 스트림 id 모양의 이벤트 id
+    private static String id(long orderId) {
+        return "1700000000000-" + orderId;
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+알림 기록 (실제 Redis 스트림)
+
+인스턴스 두 대 = OrderNotificationLog 두 개가 같은 Redis를 바라보는 상황.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderNotificationLogTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.delete(redisTemplate.keys("sse:notifications*"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void appendIsIdempotentPerOutboxId() {
+        OrderNotificationLog log = newLog(100);
+
+        String first = log.append(1L, event(1L));
+        String again = log.append(1L, event(1L)); // 아웃박스 재발송
+        log.readNew();
+
+        assertThat(again).isEqualTo(first);
+        assertThat(log.since(null, 10)).extracting(OrderNotificationLog.Entry::id).containsExactly(first);
+    }
+
+    @Test
+    void sinceReturnsEverythingAppendedAfterTheGivenIdEvenForLateCommits() {
+        OrderNotificationLog log = newLog(100);
+
+        String id5 = log.append(5L, event(5L));
+        // 아웃박스 id는 더 작지만 커밋이 늦어서 나중에 발행된 알림 -> 이어 받기에서 빠지면 안 된다.
+        String id3 = log.append(3L, event(3L));
+        String id7 = log.append(7L, event(7L));
+        log.readNew();
+
+        assertThat(log.since(id5, 10)).extracting(OrderNotificationLog.Entry::id).containsExactly(id3, id7);
+        assertThat(log.since(id5, 10)).extracting(entry -> entry.event().getOrderId()).containsExactly(3L, 7L);
+        assertThat(log.since(id7, 10)).isEmpty();
+    }
+
+    @Test
+    void firstConnectGetsTheNewestEntriesOldestFirst() {
+        OrderNotificationLog log = newLog(100);
+        for (long outboxId = 1; outboxId <= 5; outboxId++) {
+            log.append(outboxId, event(outboxId));
+        }
+        log.readNew();
+
+        assertThat(log.since(null, 3)).extracting(entry -> entry.event().getOrderId()).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void onlyTheNewestCapacityEntriesAreKept() {
+        OrderNotificationLog log = newLog(3);
+        String first = log.append(1L, event(1L));
+        for (long outboxId = 2; outboxId <= 5; outboxId++) {
+            log.append(outboxId, event(outboxId));
+        }
+        log.readNew();
+
+        assertThat(log.size()).isEqualTo(3);
+        // 마지막으로 받은 알림이 이미 밀려났어도 남아 있는 알림은 전부 받는다.
+        assertThat(log.since(first, 10)).extracting(entry -> entry.event().getOrderId()).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void sinceStopsAtWhatThisInstanceHasAlreadyRead() {
+        OrderNotificationLog log = newLog(100);
+        String id1 = log.append(1L, event(1L));
+        log.readNew();
+        log.append(2L, event(2L)); // 아직 읽지 않음 -> 다음 readNew로 실시간 전송될 알림
+
+        // 재연결한 관리자에게 2번을 먼저 보내면 실시간 전송 때 한 번 더 + 순서가 뒤로 간다.
+        assertThat(log.since(null, 10)).extracting(OrderNotificationLog.Entry::id).containsExactly(id1);
+        assertThat(log.since(id1, 10)).isEmpty();
+        assertThat(log.readNew()).extracting(entry -> entry.event().getOrderId()).containsExactly(2L);
+    }
+
+    @Test
+    void everyInstanceReadsTheSameOrderWhicheverRelayAppended() {
+        OrderNotificationLog instanceA = newLog(100);
+        OrderNotificationLog instanceB = newLog(100);
+
+        // 두 인스턴스의 릴레이가 번갈아 가며 기록
+        instanceA.append(2L, event(2L));
+        instanceB.append(1L, event(1L));
+        instanceA.append(4L, event(4L));
+        instanceB.append(3L, event(3L));
+
+        List<OrderNotificationLog.Entry> readByA = instanceA.readNew();
+        List<OrderNotificationLog.Entry> readByB = instanceB.readNew();
+
+        assertThat(readByA).extracting(entry -> entry.event().getOrderId()).containsExactly(2L, 1L, 4L, 3L);
+        assertThat(readByB).extracting(OrderNotificationLog.Entry::id)
+                .containsExactlyElementsOf(readByA.stream().map(OrderNotificationLog.Entry::id).toList());
+        assertThat(instanceA.readNew()).isEmpty(); // 읽은 위치 다음부터
+    }
+
+    @Test
+    void readNewStartsAfterWhatWasAlreadyRecordedAtStartup() {
+        OrderNotificationLog running = newLog(100);
+        running.append(1L, event(1L));
+
+        OrderNotificationLog restarted = newLog(100);
+        running.append(2L, event(2L));
+
+        assertThat(restarted.readNew()).extracting(entry -> entry.event().getOrderId()).containsExactly(2L);
+    }
+
+    @Test
+    void readNewPagesThroughLargeBacklogs() {
+        OrderNotificationLog log = newLog(100);
+        for (long outboxId = 1; outboxId <= 12; outboxId++) {
+            log.append(outboxId, event(outboxId));
+        }
+
+        assertThat(log.readNew()).hasSize(12); // 한 번에 5건씩 읽어도 전부
+    }
+
+    @Test
+    void onlyStreamIdsAreAcceptedAsEventIds() {
+        assertThat(OrderNotificationLog.isEventId("1718000000000-0")).isTrue();
+        assertThat(OrderNotificationLog.isEventId("42")).isFalse(); // 예전 아웃박스 id
+        assertThat(OrderNotificationLog.isEventId("abc")).isFalse();
+        assertThat(OrderNotificationLog.isEventId(null)).isFalse();
+    }
+
+    private OrderNotificationLog newLog(int capacity) {
+        OrderNotificationLog log = new OrderNotificationLog(redisTemplate, objectMapper, new SimpleMeterRegistry(),
+                capacity, 60_000, 5);
+        log.initCursor();
+        return log;
+    }
+
+    private static OrderNotificationEvent event(Long orderId) {
+        return OrderNotificationEvent.builder()
+                .orderId(orderId)
+                .customerEmail("user@test.com")
+                .orderStatus("ORDERED")
+                .totalItems(1)
+                .orderTime(LocalDateTime.now())
+                .orderItems(List.of())
+                .build();
+    }
+
+}
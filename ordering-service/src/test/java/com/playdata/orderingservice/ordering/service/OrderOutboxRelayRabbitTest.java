@@ -0,0 +1,213 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playdata.orderingservice.common.configs.RabbitMQConfig;
+import com.playdata.orderingservice.ordering.dto.OrderNotificationEvent;
+import com.playdata.orderingservice.ordering.entity.OrderOutbox;
+import com.playdata.orderingservice.ordering.repository.OrderOutboxRepository;
+import com.playdata.orderingservice.support.OrderingJpaTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+아웃박스 발행 -> 인스턴스별 알림 큐 팬아웃 (실제 RabbitMQ)
+
+ordering-service 인스턴스 두 대를 리스너 컨테이너 두 개로 흉내 낸다.
+각 컨테이너는 운영 설정(RabbitMQConfig)과 같은 라우팅 키로 자기만의 임시 큐를 order.exchange에 바인딩한다.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@OrderingJpaTest
+@Import({OrderOutboxRelay.class, OrderOutboxRelayRabbitTest.RabbitTestConfig.class})
+@TestPropertySource(properties = "ordering.outbox.relay-interval-ms=3600000") // 스케줄 대신 테스트가 직접 relay() 호출
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxRelayRabbitTest {
+
+    @Container
+    static final RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.13-alpine");
+
+    @TestConfiguration
+    static class RabbitTestConfig {
+
+        // 운영 설정과 같이 correlated confirm + return
+        @Bean
+        CachingConnectionFactory rabbitConnectionFactory() {
+            CachingConnectionFactory connectionFactory
+                    = new CachingConnectionFactory(rabbit.getHost(), rabbit.getAmqpPort());
+            connectionFactory.setUsername(rabbit.getAdminUsername());
+            connectionFactory.setPassword(rabbit.getAdminPassword());
+            connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+            connectionFactory.setPublisherReturns(true);
+            return connectionFactory;
+        }
+
+        @Bean
+        RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+            return new RabbitMQConfig().rabbitTemplate(connectionFactory);
+        }
+
+        @Bean
+        RabbitAdmin rabbitAdmin(ConnectionFactory connectionFactory) {
+            return new RabbitAdmin(connectionFactory);
+        }
+
+        // 알림 기록(Redis 스트림)은 OrderNotificationLogTest에서 확인
+        @Bean
+        OrderNotificationLog orderNotificationLog() {
+            OrderNotificationLog notificationLog = mock(OrderNotificationLog.class);
+            when(notificationLog.append(anyLong(), any())).thenReturn("1-0");
+            return notificationLog;
+        }
+    }
+
+    @Autowired
+    OrderOutboxRelay relay;
+    @Autowired
+    OrderOutboxRepository outboxRepository;
+    @Autowired
+    ConnectionFactory connectionFactory;
+    @Autowired
+    RabbitAdmin rabbitAdmin;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final RabbitMQConfig config = new RabbitMQConfig();
+    private final List<SimpleMessageListenerContainer> instances = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        rabbitAdmin.declareExchange(config.orderExchange());
+    }
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(container -> {
+            container.stop();
+            for (String queue : container.getQueueNames()) {
+                rabbitAdmin.deleteQueue(queue);
+            }
+        });
+    }
+
+    @Test
+    void eachInstanceReceivesExactlyOneCopy() throws Exception {
+        List<String> instanceA = startInstance();
+        List<String> instanceB = startInstance();
+        List<String> outboxIds = saveNotifications(30);
+
+        relay.relay();
+
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> instanceA.size() >= outboxIds.size() && instanceB.size() >= outboxIds.size());
+        Thread.sleep(300); // 늦게 오는 중복이 없는지
+
+        assertThat(instanceA).containsExactlyInAnyOrderElementsOf(outboxIds);
+        assertThat(instanceB).containsExactlyInAnyOrderElementsOf(outboxIds);
+        assertThat(outboxRepository.findAll()).allSatisfy(outbox -> assertThat(outbox.getSentAt()).isNotNull());
+    }
+
+    @Test
+    void unroutableNotificationIsKeptUntilAnInstanceIsBound() {
+        List<String> outboxIds = saveNotifications(1);
+
+        // 바인딩된 큐가 하나도 없음 -> 브로커가 되돌려 줌 -> 발송 완료로 표시하지 않는다.
+        relay.relay();
+        assertThat(outboxRepository.findAll()).allSatisfy(outbox -> assertThat(outbox.getSentAt()).isNull());
+
+        List<String> instance = startInstance();
+        relay.relay();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> instance.size() == 1);
+        assertThat(instance).containsExactlyElementsOf(outboxIds);
+        assertThat(outboxRepository.findAll()).allSatisfy(outbox -> assertThat(outbox.getSentAt()).isNotNull());
+    }
+
+    @Test
+    void unroutableNotificationIsGivenUpAfterTheConfiguredTime() {
+        saveNotifications(1);
+        ReflectionTestUtils.setField(relay, "unroutableGiveUpMs", 0L);
+        try {
+            relay.relay();
+        } finally {
+            ReflectionTestUtils.setField(relay, "unroutableGiveUpMs", 600_000L);
+        }
+
+        assertThat(outboxRepository.findAll()).allSatisfy(outbox -> assertThat(outbox.getSentAt()).isNotNull());
+    }
+
+    // 인스턴스 하나 = 임시 큐 하나 + 리스너 컨테이너 하나. 받은 메시지 id(= 아웃박스 id)를 기록
+    private List<String> startInstance() {
+        Binding binding = config.adminNotificationBinding();
+        rabbitAdmin.declareQueue(new Queue(binding.getDestination(), false, true, true));
+        rabbitAdmin.declareBinding(binding);
+
+        List<String> received = new CopyOnWriteArrayList<>();
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(binding.getDestination());
+        container.setMessageListener(message -> received.add(message.getMessageProperties().getMessageId()));
+        container.start();
+        instances.add(container);
+        return received;
+    }
+
+    private List<String> saveNotifications(int count) {
+        List<OrderOutbox> rows = new ArrayList<>();
+        for (long orderId = 1; orderId <= count; orderId++) {
+            OrderNotificationEvent event = OrderNotificationEvent.builder()
+                    .orderId(orderId)
+                    .customerEmail("user@test.com")
+                    .orderStatus("ORDERED")
+                    .totalItems(1)
+                    .orderTime(LocalDateTime.now())
+                    .orderItems(List.of())
+                    .build();
+            try {
+                rows.add(OrderOutbox.builder()
+                        .orderId(orderId)
+                        .exchange("order.exchange")
+                        .routingKey("order.created")
+                        .payload(objectMapper.writeValueAsString(event))
+                        .payloadType(OrderNotificationEvent.class.getName())
+                        .build());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return outboxRepository.saveAll(rows).stream()
+                .map(outbox -> String.valueOf(outbox.getId()))
+                .toList();
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.common.auth.Role;
+import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.support.JdbcActivityRecorder;
+import com.playdata.orderingservice.support.OrderingJpaTest;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.playdata.orderingservice.support.OrderBenchmarks.orderLines;
+import static com.playdata.orderingservice.support.OrderBenchmarks.warmUp;
+import static com.playdata.orderingservice.support.OrderingJpaTestConfig.reserveAll;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/*
+주문 한 건당 DB 왕복 수 비교 (user-012)
+
+주문 상세가 LINES_PER_ORDER줄인 주문을 넣고 JDBC execute/executeBatch 호출 수를 센다.
+- before: JDBC 배치를 끈 경우 (세션 batch size 1). IDENTITY를 쓰던 때처럼 INSERT가 줄마다 한 번씩 나간다.
+- after: 지금 설정 (시퀀스 id + hibernate.jdbc.batch_size) -> 주문 상세 INSERT가 executeBatch 한 번으로 묶인다.
+
+시퀀스는 50개씩 미리 받아 두므로 id 조회 왕복은 여러 주문에 나뉘어 거의 0에 가깝다.
+(H2는 진짜 시퀀스, MySQL은 시퀀스 테이블이지만 받아 가는 횟수는 같다)
+
+실행: ./gradlew benchmark --tests '*OrderRoundTripBenchmark'
+ */
+@Tag("benchmark")
+@OrderingJpaTest
+@Import({OrderingService.class, OrderNotificationService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderRoundTripBenchmark {
+
+    private static final int ORDERS = 100;
+    private static final int LINES_PER_ORDER = 30;
+
+    @Autowired
+    OrderingService orderingService;
+    @Autowired
+    ProductServiceClient productServiceClient;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcActivityRecorder recorder;
+
+    private final TokenUserInfo user = new TokenUserInfo("bench@test.com", Role.USER, 1L);
+    private final List<OrderingSaveReqDto> dtoList = orderLines(LINES_PER_ORDER);
+
+    @BeforeEach
+    void setUp() {
+        when(productServiceClient.reserveProducts(anyList())).thenAnswer(reserveAll(0));
+    }
+
+    @Test
+    void roundTripsPerOrder() {
+        warmUp(() -> orderingService.createOrder(dtoList, user));
+
+        // createOrder의 저장 트랜잭션이 바깥 트랜잭션에 합류하므로 같은 세션의 batch size가 적용된다.
+        double before = measure(() -> transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            orderingService.createOrder(dtoList, user);
+        }));
+        double after = measure(() -> orderingService.createOrder(dtoList, user));
+
+        System.out.printf("%n[user-012] 주문 %d건, 주문당 상세 %d줄%n", ORDERS, LINES_PER_ORDER);
+        System.out.printf("%-8s %14s%n", "", "왕복/주문");
+        System.out.printf("%-8s %14.1f%n", "before", before);
+        System.out.printf("%-8s %14.1f%n", "after", after);
+
+        // 배치 없이: 주문 1 + 상세 줄 수만큼
+        assertThat(before).isGreaterThanOrEqualTo(LINES_PER_ORDER + 1);
+        // 배치: 주문 + 상세 묶음 + 알림 아웃박스 정도로 줄 수와 무관
+        assertThat(after).isLessThan(10);
+    }
+
+    private double measure(Runnable placeOrder) {
+        recorder.reset();
+        for (int i = 0; i < ORDERS; i++) {
+            placeOrder.run();
+        }
+        return recorder.roundTrips() / (double) ORDERS;
+    }
+
+}
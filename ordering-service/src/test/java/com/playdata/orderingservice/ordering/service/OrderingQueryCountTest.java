@@ -0,0 +1,108 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.common.auth.Role;
+import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.ordering.dto.OrderingPageResDto;
+import com.playdata.orderingservice.ordering.entity.OrderDetail;
+import com.playdata.orderingservice.ordering.entity.OrderStatus;
+import com.playdata.orderingservice.ordering.entity.Ordering;
+import com.playdata.orderingservice.support.OrderingJpaTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+내 주문 목록 조회의 SQL 실행 수 고정 (N+1 재발 방지)
+
+OSIV를 껐으므로 응답 변환 중의 지연 로딩에 기대지 않고, 상세까지 서비스 안에서 미리 조회한다.
+(트랜잭션 밖에서도 동작하는지는 OrderConnectionOccupancyBenchmark의 MockMvc 측정이 확인)
+미리 저장한 주문이 1차 캐시에 남아 있지 않도록 flush + clear 후에 센다.
+ */
+@OrderingJpaTest
+@Import({OrderingService.class, OrderNotificationService.class})
+class OrderingQueryCountTest {
+
+    private static final int ORDERS = 30;
+    private static final int LINES_PER_ORDER = 3;
+
+    @Autowired
+    OrderingService orderingService;
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private final TokenUserInfo user = new TokenUserInfo("user@test.com", Role.USER, 7L);
+    private Long anyOrderId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ORDERS; i++) {
+            Ordering order = Ordering.builder()
+                    .userId(user.getUserId())
+                    .userEmail(user.getEmail())
+                    .orderStatus(OrderStatus.ORDERED)
+                    .orderDetails(new ArrayList<>())
+                    .build();
+            for (long productId = 1; productId <= LINES_PER_ORDER; productId++) {
+                order.getOrderDetails().add(OrderDetail.builder()
+                        .productId(productId).quantity(1).ordering(order).build());
+            }
+            entityManager.persist(order);
+            anyOrderId = order.getId();
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void myOrderPageWithDetailsTakesTwoStatements() {
+        OrderingPageResDto page = orderingService.myOrder(user, null, 20, true);
+
+        assertThat(page.getOrders()).hasSize(20);
+        assertThat(page.getOrders()).allSatisfy(order -> assertThat(order.getOrderDetails()).hasSize(LINES_PER_ORDER));
+        // 주문 한 페이지 1번 + 그 주문들의 상세를 fetch join으로 1번 (주문 수와 상관없이)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void nextPageAlsoTakesTwoStatements() {
+        OrderingPageResDto first = orderingService.myOrder(user, null, 20, true);
+        entityManager.clear();
+        statistics.clear();
+
+        OrderingPageResDto second = orderingService.myOrder(user, first.getNextCursor(), 20, true);
+
+        assertThat(second.getOrders()).hasSize(ORDERS - 20);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void myOrderHeadersOnlyTakesOneStatement() {
+        orderingService.myOrder(user, null, 20, false);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findOrderLoadsDetailsInTheSameStatement() {
+        orderingService.findOrder(user, anyOrderId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+}
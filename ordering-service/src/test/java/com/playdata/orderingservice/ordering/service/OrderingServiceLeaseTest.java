@@ -0,0 +1,155 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.ordering.entity.OrderDetail;
+import com.playdata.orderingservice.ordering.entity.OrderStatus;
+import com.playdata.orderingservice.ordering.entity.Ordering;
+import com.playdata.orderingservice.ordering.repository.OrderOutboxRepository;
+import com.playdata.orderingservice.ordering.repository.OrderingRepository;
+import com.playdata.orderingservice.support.OrderingJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// 임대(lease)를 잡고 처리 중인 주문과 주문 취소가 겹칠 때 (재처리 스케줄러, 비동기 접수 사가 공통)
+@OrderingJpaTest
+@Import({OrderingService.class, OrderNotificationService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderingServiceLeaseTest {
+
+    @Autowired
+    OrderingService orderingService;
+    @Autowired
+    OrderingRepository orderingRepository;
+    @Autowired
+    OrderOutboxRepository outboxRepository;
+    @Autowired
+    ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        clearInvocations(productServiceClient);
+    }
+
+    @Test
+    void cancelIsRefusedWhileAnotherWorkerHoldsTheLease() {
+        Ordering order = save(OrderStatus.PENDING_PROD_STOCK_UPDATE, "worker-1", LocalDateTime.now().plusMinutes(1));
+
+        assertThatThrownBy(() -> orderingService.cancelOrder(order.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(statusOf(order)).isEqualTo(OrderStatus.PENDING_PROD_STOCK_UPDATE);
+        verify(productServiceClient, never()).cancelProduct(anyMap());
+    }
+
+    @Test
+    void pendingOrderWithNothingDeductedIsCanceledWithoutRestock() {
+        Ordering order = save(OrderStatus.PENDING_PROD_NOT_FOUND, null, null);
+
+        orderingService.cancelOrder(order.getId());
+
+        assertThat(statusOf(order)).isEqualTo(OrderStatus.CANCELED);
+        // 차감 표시된 줄이 없다 -> 재고를 가져간 적이 없다.
+        verify(productServiceClient, never()).cancelProduct(anyMap());
+    }
+
+    @Test
+    void pendingOrderGivesBackOnlyTheLinesAlreadyDeducted() {
+        // 줄 단위 처리: 첫 줄(상품 1번 3개)만 차감된 뒤 다음 줄에서 장애로 보류됨
+        Ordering order = save(OrderStatus.PENDING_PROD_STOCK_UPDATE, null, null);
+        order.getOrderDetails().get(0).setStockDeducted(true);
+        orderingRepository.save(order);
+
+        orderingService.cancelOrder(order.getId());
+
+        assertThat(statusOf(order)).isEqualTo(OrderStatus.CANCELED);
+        verify(productServiceClient, times(1)).cancelProduct(Map.of(1L, 3));
+    }
+
+    @Test
+    void retryResultIsDroppedWhenTheOrderWasCanceledAfterTheLeaseExpired() {
+        // 재처리 도중 임대가 만료됨 -> 그 사이 취소 요청은 성공
+        Ordering order = save(OrderStatus.PENDING_PROD_STOCK_UPDATE, "worker-1", LocalDateTime.now().minusSeconds(1));
+        orderingService.cancelOrder(order.getId());
+
+        // 뒤늦게 끝난 재처리가 ORDERED로 저장하려 한다.
+        order.updateStatus(OrderStatus.ORDERED);
+        boolean saved = orderingService.saveLeasedResult(order, "worker-1", OrderStatus.PENDING_PROD_STOCK_UPDATE);
+
+        assertThat(saved).isFalse();
+        assertThat(statusOf(order)).isEqualTo(OrderStatus.CANCELED);
+    }
+
+    @Test
+    void retryResultIsDroppedWhenAnotherWorkerTookTheLease() {
+        Ordering order = save(OrderStatus.PENDING_PROD_STOCK_UPDATE, "worker-2", LocalDateTime.now().plusMinutes(1));
+
+        order.updateStatus(OrderStatus.ORDERED);
+        boolean saved = orderingService.saveLeasedResult(order, "worker-1", OrderStatus.PENDING_PROD_STOCK_UPDATE);
+
+        assertThat(saved).isFalse();
+        assertThat(statusOf(order)).isEqualTo(OrderStatus.PENDING_PROD_STOCK_UPDATE);
+    }
+
+    @Test
+    void leasedResultIsSavedWithItsNotification() {
+        Ordering order = save(OrderStatus.PENDING_PROD_STOCK_UPDATE, "worker-1", LocalDateTime.now().plusMinutes(1));
+        long outboxBefore = outboxRepository.count();
+
+        order.updateStatus(OrderStatus.ORDERED);
+        boolean saved = orderingService.saveLeasedResult(order, "worker-1", OrderStatus.PENDING_PROD_STOCK_UPDATE);
+
+        assertThat(saved).isTrue();
+        Ordering reloaded = orderingRepository.findById(order.getId()).orElseThrow();
+        assertThat(reloaded.getOrderStatus()).isEqualTo(OrderStatus.ORDERED);
+        assertThat(reloaded.getLeaseOwner()).isNull();
+        assertThat(outboxRepository.count()).isEqualTo(outboxBefore + 1);
+    }
+
+    @Test
+    void orderedOrderIsRestockedOnceWithDuplicateLinesMerged() {
+        Ordering order = save(OrderStatus.ORDERED, null, null);
+
+        orderingService.cancelOrder(order.getId());
+        orderingService.cancelOrder(order.getId()); // 두 번째 취소는 재고를 또 돌려놓지 않는다.
+
+        verify(productServiceClient, times(1)).cancelProduct(Map.of(1L, 5, 2L, 1));
+        assertThat(statusOf(order)).isEqualTo(OrderStatus.CANCELED);
+    }
+
+    // 상품 1번이 두 줄(3개 + 2개), 상품 2번 한 줄인 주문
+    private Ordering save(OrderStatus status, String leaseOwner, LocalDateTime leaseUntil) {
+        Ordering order = Ordering.builder()
+                .userId(1L)
+                .userEmail("user@test.com")
+                .orderStatus(status)
+                .originalRequestJson("[]")
+                .orderDetails(new ArrayList<>())
+                .leaseOwner(leaseOwner)
+                .leaseUntil(leaseUntil)
+                .build();
+        order.getOrderDetails().add(OrderDetail.builder().productId(1L).quantity(3).ordering(order).build());
+        order.getOrderDetails().add(OrderDetail.builder().productId(1L).quantity(2).ordering(order).build());
+        order.getOrderDetails().add(OrderDetail.builder().productId(2L).quantity(1).ordering(order).build());
+        return orderingRepository.save(order);
+    }
+
+    private OrderStatus statusOf(Ordering order) {
+        return orderingRepository.findById(order.getId()).orElseThrow().getOrderStatus();
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.common.auth.Role;
+import com.playdata.orderingservice.common.auth.TokenUserInfo;
+import com.playdata.orderingservice.common.dto.CommonResDto;
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.ordering.dto.ProductResDto;
+import com.playdata.orderingservice.ordering.entity.OrderDetail;
+import com.playdata.orderingservice.ordering.entity.OrderStatus;
+import com.playdata.orderingservice.ordering.entity.Ordering;
+import com.playdata.orderingservice.ordering.repository.OrderingRepository;
+import com.playdata.orderingservice.support.OrderingJpaTest;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 주문의 재고 예약 결과 처리: 재고 부족 / 요청 거절(4xx) / 장애(5xx) / 줄 단위 재처리
+@OrderingJpaTest
+@Import({OrderingService.class, OrderNotificationService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderingServiceReserveTest {
+
+    private static final Request RESERVE = Request.create(Request.HttpMethod.POST, "/product/reserve",
+            Map.of(), null, StandardCharsets.UTF_8, null);
+
+    @Autowired
+    OrderingService orderingService;
+    @Autowired
+    OrderingRepository orderingRepository;
+    @Autowired
+    ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        reset(productServiceClient);
+    }
+
+    @Test
+    void outOfStockOnALaterLineGivesBackTheLinesAlreadyDeducted() {
+        // 줄 단위 방식: 1번 상품은 차감된 뒤 2번 상품에서 재고 부족
+        TokenUserInfo user = user("line-by-line@test.com");
+        ReflectionTestUtils.setField(orderingService, "batchReserve", false);
+        try {
+            when(productServiceClient.findById(1L)).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", product(1L, 10)));
+            when(productServiceClient.findById(2L)).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", product(2L, 0)));
+            when(productServiceClient.decreaseQuantity(any())).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", true));
+
+            assertThatThrownBy(() -> orderingService.createOrder(lines(), user))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            verify(productServiceClient).cancelProduct(Map.of(1L, 2));
+            assertThat(ordersOf(user)).isEmpty();
+        } finally {
+            ReflectionTestUtils.setField(orderingService, "batchReserve", true);
+        }
+    }
+
+    @Test
+    void lineByLineRetryDeductsOnlyTheLinesStillOwed() {
+        // 1차 시도: 1번 상품은 차감, 2번 상품 차감 요청은 장애 -> 보류
+        Ordering order = Ordering.builder()
+                .userId(31L)
+                .userEmail("line-retry@test.com")
+                .orderDetails(new ArrayList<>())
+                .build();
+        ReflectionTestUtils.setField(orderingService, "batchReserve", false);
+        try {
+            when(productServiceClient.findById(1L)).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", product(1L, 10)));
+            when(productServiceClient.findById(2L)).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", product(2L, 10)));
+            when(productServiceClient.decreaseQuantity(any()))
+                    .thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", true))
+                    .thenThrow(new FeignException.InternalServerError("500", RESERVE, null, null));
+            orderingService.processOrderToProductService(lines(), order.getUserId(), order);
+            assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PENDING_PROD_STOCK_UPDATE);
+
+            // 2차 시도(재처리): 이미 차감한 1번 상품은 건너뛰고, 상세도 다시 추가하지 않는다.
+            when(productServiceClient.decreaseQuantity(any())).thenReturn(new CommonResDto<>(HttpStatus.OK, "ok", true));
+            order.updateStatus(OrderStatus.ORDERED);
+            orderingService.processOrderToProductService(lines(), order.getUserId(), order);
+
+            assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.ORDERED);
+            assertThat(order.getOrderDetails()).hasSize(2).allMatch(OrderDetail::isStockDeducted);
+            verify(productServiceClient, times(1)).decreaseQuantity(argThat(dto -> dto.getProductId() == 1L));
+            verify(productServiceClient, times(2)).decreaseQuantity(argThat(dto -> dto.getProductId() == 2L));
+        } finally {
+            ReflectionTestUtils.setField(orderingService, "batchReserve", true);
+        }
+    }
+
+    @Test
+    void clientErrorFromReserveRejectsTheOrder() {
+        // 요청 자체가 잘못됨 -> 다시 보내도 같은 결과이므로 보류(재처리)하지 않는다.
+        TokenUserInfo user = user("bad-request@test.com");
+        when(productServiceClient.reserveProducts(anyList()))
+                .thenThrow(new FeignException.BadRequest("400", RESERVE, null, null));
+
+        assertThatThrownBy(() -> orderingService.createOrder(lines(), user))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(ordersOf(user)).isEmpty();
+        verify(productServiceClient, never()).cancelProduct(anyMap());
+    }
+
+    @Test
+    void serverErrorFromReserveParksTheOrderForRetry() {
+        TokenUserInfo user = user("server-error@test.com");
+        when(productServiceClient.reserveProducts(anyList()))
+                .thenThrow(new FeignException.InternalServerError("500", RESERVE, null, null));
+
+        Ordering order = orderingService.createOrder(lines(), user);
+
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PENDING_PROD_STOCK_UPDATE);
+        assertThat(ordersOf(user)).hasSize(1);
+    }
+
+    @Test
+    void tooManyRequestsFromReserveIsTreatedAsAnOutage() {
+        // 429는 요청이 잘못된 것이 아니라 product-service가 밀리고 있다는 뜻
+        TokenUserInfo user = user("too-many@test.com");
+        when(productServiceClient.reserveProducts(anyList()))
+                .thenThrow(new FeignException.TooManyRequests("429", RESERVE, null, null));
+
+        Ordering order = orderingService.createOrder(lines(), user);
+
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PENDING_PROD_STOCK_UPDATE);
+    }
+
+    // 상품 1번 2개, 상품 2번 1개
+    private static List<OrderingSaveReqDto> lines() {
+        return List.of(
+                OrderingSaveReqDto.builder().productId(1L).productQuantity(2).build(),
+                OrderingSaveReqDto.builder().productId(2L).productQuantity(1).build());
+    }
+
+    private static TokenUserInfo user(String email) {
+        return new TokenUserInfo(email, Role.USER, 31L); // 같은 컨텍스트(DB)를 쓰는 다른 테스트의 회원과 겹치지 않게
+    }
+
+    private static ProductResDto product(Long id, int stockQuantity) {
+        return ProductResDto.builder().id(id).name("상품" + id).stockQuantity(stockQuantity).build();
+    }
+
+    private List<Ordering> ordersOf(TokenUserInfo user) {
+        return orderingRepository.findAll().stream()
+                .filter(order -> user.getEmail().equals(order.getUserEmail()))
+                .toList();
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.playdata.orderingservice.ordering.service;
+
+import com.playdata.orderingservice.client.ProductServiceAsyncClient;
+import com.playdata.orderingservice.common.limiter.LimitExceededException;
+import com.playdata.orderingservice.ordering.dto.ProductResDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductLookupCoalescerTest {
+
+    private final ProductServiceAsyncClient client = mock(ProductServiceAsyncClient.class);
+    private final ProductLookupCoalescer coalescer
+            = new ProductLookupCoalescer(client, new SimpleMeterRegistry(), true, 5, 100);
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void concurrentLookupsOfTheSameProductShareOneCall() {
+        CompletableFuture<ProductResDto> response = new CompletableFuture<>();
+        when(client.findById(1L)).thenReturn(response);
+
+        CompletableFuture<ProductResDto> first = coalescer.findById(1L);
+        CompletableFuture<ProductResDto> second = coalescer.findById(1L);
+        response.complete(product(1L));
+
+        assertThat(first.join().getId()).isEqualTo(1L);
+        assertThat(second.join().getId()).isEqualTo(1L);
+        verify(client, times(1)).findById(1L);
+    }
+
+    @Test
+    void finishedLookupIsNotReused() {
+        when(client.findById(1L)).thenReturn(CompletableFuture.completedFuture(product(1L)));
+
+        coalescer.findById(1L).join();
+        coalescer.findById(1L).join();
+
+        // 결과를 보관하지 않는다 -> 두 번째는 새로 조회
+        verify(client, times(2)).findById(1L);
+    }
+
+    @Test
+    void failedLookupIsRemovedSoTheNextOneRetries() {
+        when(client.findById(1L))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("503")))
+                .thenReturn(CompletableFuture.completedFuture(product(1L)));
+
+        assertThat(coalescer.findById(1L)).isCompletedExceptionally();
+        assertThat(coalescer.findById(1L).join().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void synchronousThrowCompletesTheLookupAndRemovesIt() {
+        // 비동기 클라이언트가 future를 돌려주기 전에 바로 던지는 경우 (헤지/리미터 내부 오류 등)
+        when(client.findById(1L))
+                .thenThrow(new LimitExceededException("한도 초과"))
+                .thenReturn(CompletableFuture.completedFuture(product(1L)));
+
+        CompletableFuture<ProductResDto> failed = coalescer.findById(1L);
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(coalescer.findById(1L).orTimeout(1, TimeUnit.SECONDS).join().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void batchLookupsAreMergedAndMissingProductsLeftOut() {
+        when(client.getProducts(anyList())).thenReturn(CompletableFuture.completedFuture(List.of(product(1L))));
+
+        Map<Long, ProductResDto> result = coalescer.getProducts(List.of(1L, 2L, 1L))
+                .orTimeout(1, TimeUnit.SECONDS).join();
+
+        assertThat(result).containsOnlyKeys(1L);
+        verify(client, times(1)).getProducts(List.of(1L, 2L));
+    }
+
+    @Test
+    void failedBatchIsRemovedSoTheNextOneRetries() {
+        when(client.getProducts(anyList()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(CompletableFuture.completedFuture(List.of(product(1L))));
+
+        assertThat(coalescer.getProducts(List.of(1L)).orTimeout(1, TimeUnit.SECONDS).join()).isEmpty();
+        assertThat(coalescer.getProducts(List.of(1L)).orTimeout(1, TimeUnit.SECONDS).join()).containsOnlyKeys(1L);
+    }
+
+    @Test
+    void disabledCoalescerCallsThroughEveryTime() {
+        ProductLookupCoalescer disabled = new ProductLookupCoalescer(client, new SimpleMeterRegistry(), false, 5, 100);
+        when(client.findById(1L)).thenReturn(new CompletableFuture<>());
+
+        disabled.findById(1L);
+        disabled.findById(1L);
+
+        verify(client, times(2)).findById(1L);
+        disabled.shutdown();
+    }
+
+    private static ProductResDto product(Long id) {
+        return ProductResDto.builder().id(id).name("상품" + id).stockQuantity(10).build();
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.playdata.orderingservice.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+테스트/벤치마크용 DataSource 기록기
+
+- 커넥션을 빌려간 시간 (getConnection ~ close) 합계와 동시에 빌려간 최대 개수 -> 커넥션 풀 점유
+- DB 왕복 수 (execute*, executeBatch 호출 수. addBatch로 모은 INSERT는 executeBatch 한 번으로 센다)
+
+컨텍스트의 DataSource 빈을 감싸서 동작하므로 하이버네이트, JdbcTemplate 모두 기록된다.
+ */
+public class JdbcActivityRecorder implements BeanPostProcessor {
+
+    private static final Set<String> ROUND_TRIP_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+            "executeBatch", "executeLargeBatch");
+
+    private final AtomicLong connectionHoldNanos = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger maxInUse = new AtomicInteger();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)) {
+            return new RecordingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    public void reset() {
+        connectionHoldNanos.set(0);
+        connections.set(0);
+        roundTrips.set(0);
+        maxInUse.set(inUse.get());
+    }
+
+    public long connectionHoldNanos() {
+        return connectionHoldNanos.get();
+    }
+
+    public long connections() {
+        return connections.get();
+    }
+
+    public long roundTrips() {
+        return roundTrips.get();
+    }
+
+    public int maxInUse() {
+        return maxInUse.get();
+    }
+
+    private class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private Connection wrap(Connection target) {
+            long borrowedAt = System.nanoTime();
+            connections.incrementAndGet();
+            maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+            AtomicInteger closed = new AtomicInteger();
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (method.getName().equals("close") && closed.getAndIncrement() == 0) {
+                    inUse.decrementAndGet();
+                    connectionHoldNanos.addAndGet(System.nanoTime() - borrowedAt);
+                }
+                Object result = invoke(target, method, args);
+                if (result instanceof Statement statement) {
+                    return wrapStatement(statement);
+                }
+                return result;
+            };
+            return (Connection) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+
+        private Statement wrapStatement(Statement target) {
+            Class<?> type = target instanceof CallableStatement ? CallableStatement.class
+                    : target instanceof PreparedStatement ? PreparedStatement.class
+                    : Statement.class;
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (ROUND_TRIP_METHODS.contains(method.getName())) {
+                    roundTrips.incrementAndGet();
+                }
+                return invoke(target, method, args);
+            };
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+}
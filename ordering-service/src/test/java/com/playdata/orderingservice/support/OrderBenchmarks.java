@@ -0,0 +1,56 @@
+package com.playdata.orderingservice.support;
+
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+주문 벤치마크 공통 준비/실행 (@Tag("benchmark"))
+
+각 벤치마크에는 무엇을 재는지(기록기 초기화, 결과 계산, 출력, 검증)만 남긴다.
+재고 예약 스텁은 OrderingJpaTestConfig.reserveAll
+ */
+public final class OrderBenchmarks {
+
+    private static final int WARM_UP_ORDERS = 20;
+
+    private OrderBenchmarks() {
+    }
+
+    // 상품 1~lines번을 1개씩 주문하는 주문 줄
+    public static List<OrderingSaveReqDto> orderLines(int lines) {
+        List<OrderingSaveReqDto> dtoList = new ArrayList<>();
+        for (long productId = 1; productId <= lines; productId++) {
+            dtoList.add(new OrderingSaveReqDto(productId, 1));
+        }
+        return dtoList;
+    }
+
+    // 측정 전에 한 번: 하이버네이트 초기화, 첫 시퀀스 블록 할당 등이 측정에 섞이지 않도록
+    public static void warmUp(Runnable placeOrder) {
+        for (int i = 0; i < WARM_UP_ORDERS; i++) {
+            placeOrder.run();
+        }
+    }
+
+    // 주문을 orders건 executor에 한꺼번에 넣고 전부 끝날 때까지 기다린다. (executor는 닫힌다)
+    // 리턴: 전체 처리 시간(ms)
+    public static long placeConcurrently(ExecutorService executor, int orders, Runnable placeOrder) throws Exception {
+        long start = System.nanoTime();
+        try (executor) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < orders; i++) {
+                futures.add(executor.submit(placeOrder));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+}
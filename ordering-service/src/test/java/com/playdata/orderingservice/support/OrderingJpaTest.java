@@ -0,0 +1,32 @@
+package com.playdata.orderingservice.support;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ordering-service의 JPA 슬라이스 테스트 (H2 인메모리 DB)
+
+- config-service, eureka 없이 뜨도록 외부 설정 연동을 끈다. (application.yml의 jpa/hibernate 설정은 그대로 적용)
+- 원격 클라이언트는 전부 목(mock)으로 등록 (OrderingJpaTestConfig)
+- 서비스의 트랜잭션 경계를 그대로 보려면 테스트 클래스에
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)를 붙인다. (@DataJpaTest 기본은 테스트마다 트랜잭션)
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest(properties = {
+        "spring.cloud.bootstrap.enabled=false",
+        "spring.cloud.config.enabled=false",
+        "spring.cloud.config.import-check.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(OrderingJpaTestConfig.class)
+public @interface OrderingJpaTest {
+}
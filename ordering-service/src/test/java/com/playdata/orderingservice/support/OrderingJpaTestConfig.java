@@ -0,0 +1,129 @@
+package com.playdata.orderingservice.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.playdata.orderingservice.client.ProductServiceAsyncClient;
+import com.playdata.orderingservice.client.ProductServiceClient;
+import com.playdata.orderingservice.client.UserServiceAsyncClient;
+import com.playdata.orderingservice.client.UserServiceClient;
+import com.playdata.orderingservice.common.dto.CommonResDto;
+import com.playdata.orderingservice.common.hedging.HedgingExecutor;
+import com.playdata.orderingservice.common.limiter.AdaptiveConcurrencyLimiter;
+import com.playdata.orderingservice.ordering.dto.OrderingSaveReqDto;
+import com.playdata.orderingservice.ordering.dto.ProductReserveResDto;
+import com.playdata.orderingservice.ordering.service.ProductInfoCache;
+import com.playdata.orderingservice.ordering.service.ProductLookupCoalescer;
+import org.mockito.stubbing.Answer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// OrderingService 주변 빈 중 원격 호출/부가 기능은 목으로, 나머지는 실제 객체로
+@TestConfiguration
+public class OrderingJpaTestConfig {
+
+    @Bean
+    static JdbcActivityRecorder jdbcActivityRecorder() {
+        return new JdbcActivityRecorder();
+    }
+
+    @Bean
+    ObjectMapper objectMapper() {
+        return new ObjectMapper().findAndRegisterModules();
+    }
+
+    // product-service 재고 예약 스텁: latencyMs만큼 걸린 뒤 요청 받은 줄을 전부 RESERVED로 응답
+    // when(productServiceClient.reserveProducts(anyList())).thenAnswer(reserveAll(50))
+    public static Answer<CommonResDto<List<ProductReserveResDto>>> reserveAll(long latencyMs) {
+        return invocation -> {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            List<OrderingSaveReqDto> dtoList = invocation.getArgument(0);
+            List<ProductReserveResDto> results = dtoList.stream()
+                    .map(dto -> ProductReserveResDto.builder()
+                            .productId(dto.getProductId())
+                            .requestedQuantity(dto.getProductQuantity())
+                            .result(ProductReserveResDto.ReserveResult.RESERVED)
+                            .build())
+                    .toList();
+            return new CommonResDto<>(HttpStatus.OK, "ok", results);
+        };
+    }
+
+    // 서킷 브레이커는 그대로 통과 (장애 상황은 클라이언트 목이 예외를 던지는 것으로 재현)
+    // 운영과 같은 벌크헤드/TimeLimiter가 필요하면 ProductionResilienceConfig
+    @Bean
+    @Profile("!" + ProductionResilienceConfig.PROFILE)
+    @SuppressWarnings("unchecked")
+    CircuitBreakerFactory<?, ?> circuitBreakerFactory() {
+        CircuitBreaker passThrough = new CircuitBreaker() {
+            @Override
+            public <T> T run(Supplier<T> toRun, Function<Throwable, T> fallback) {
+                return toRun.get();
+            }
+        };
+        CircuitBreakerFactory<?, ?> factory = mock(CircuitBreakerFactory.class);
+        when(factory.create(anyString())).thenReturn(passThrough);
+        return factory;
+    }
+
+    // 한도에 걸리지 않을 만큼 넉넉하게
+    @Bean
+    @Profile("!" + ProductionResilienceConfig.PROFILE)
+    AdaptiveConcurrencyLimiter productServiceLimiter() {
+        return new AdaptiveConcurrencyLimiter("product-service", 1000, 1000, 1000, 1.5);
+    }
+
+    @Bean
+    RestTemplate restTemplate() {
+        return mock(RestTemplate.class);
+    }
+
+    @Bean
+    UserServiceClient userServiceClient() {
+        return mock(UserServiceClient.class);
+    }
+
+    @Bean
+    ProductServiceClient productServiceClient() {
+        return mock(ProductServiceClient.class);
+    }
+
+    @Bean
+    UserServiceAsyncClient userServiceAsyncClient() {
+        return mock(UserServiceAsyncClient.class);
+    }
+
+    @Bean
+    ProductServiceAsyncClient productServiceAsyncClient() {
+        return mock(ProductServiceAsyncClient.class);
+    }
+
+    @Bean
+    ProductInfoCache productInfoCache() {
+        return mock(ProductInfoCache.class);
+    }
+
+    @Bean
+    HedgingExecutor productServiceHedger() {
+        return mock(HedgingExecutor.class);
+    }
+
+    @Bean
+    ProductLookupCoalescer productLookupCoalescer() {
+        return mock(ProductLookupCoalescer.class);
+    }
+
+}
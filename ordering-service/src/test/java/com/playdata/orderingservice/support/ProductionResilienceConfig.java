@@ -0,0 +1,44 @@
+package com.playdata.orderingservice.support;
+
+import com.playdata.orderingservice.common.configs.LimiterConfig;
+import io.github.resilience4j.springboot3.bulkhead.autoconfigure.BulkheadAutoConfiguration;
+import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerAutoConfiguration;
+import io.github.resilience4j.springboot3.timelimiter.autoconfigure.TimeLimiterAutoConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/*
+운영과 같은 서킷 브레이커 / 벌크헤드 / TimeLimiter / product-service 리미터
+
+OrderingJpaTestConfig는 이 빈들을 한도 없는 통과용으로 등록한다.
+운영의 동시 호출 한도까지 재야 하는 테스트는 이 설정을 가져오고 프로필을 켠다. (통과용 빈이 빠짐)
+  @Import(ProductionResilienceConfig.class)
+  @ActiveProfiles(ProductionResilienceConfig.PROFILE)
+
+- 서킷 브레이커 팩토리: 운영과 같은 자동 설정 -> application.yml의 resilience4j.* 값이 그대로 적용
+- 리미터: 운영의 LimiterConfig (ordering.product.limiter.*)
+ */
+@TestConfiguration
+@ImportAutoConfiguration({
+        CircuitBreakerAutoConfiguration.class,
+        TimeLimiterAutoConfiguration.class,
+        BulkheadAutoConfiguration.class,
+        Resilience4JAutoConfiguration.class
+})
+@Import(LimiterConfig.class)
+public class ProductionResilienceConfig {
+
+    public static final String PROFILE = "production-resilience";
+
+    // LimiterConfig가 리미터 상태를 지표로 등록하는 곳
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.playdata.productservice.common.configs;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    /*
+    상품 변경 알림 경로
+    [상품 수정/삭제] → [product.exchange] → [각 서비스가 자기 큐를 바인딩해서 수신]
+
+    product-service는 교환소에 발행만 하고, 누가 받는지는 신경 쓰지 않는다.
+    라우팅 키: product.updated, product.deleted
+     */
+    @Bean
+    public TopicExchange productExchange() {
+        return new TopicExchange("product.exchange");
+    }
+
+    // 이벤트 객체를 JSON으로 변환해서 발행 (RabbitTemplate 자동 설정이 이 컨버터를 사용)
+    @Bean
+    public Jackson2JsonMessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+}
@@ -45,9 +45,11 @@ public class SecurityConfig {
 //                    .requestMatchers("/user/list").hasRole("ROLE_ADMIN")
                     .requestMatchers("/product/list",
                             "/product/updateQuantity",
+                            "/product/decreaseQuantity",
                             "/product/{prodId}",
                               "/product/products",
                             "/product/cancel",
+                            "/product/reserve",
                             "/actuator/**").permitAll()
                     .anyRequest().authenticated();
         });
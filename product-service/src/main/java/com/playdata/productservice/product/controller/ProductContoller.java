@@ -1,6 +1,8 @@
 package com.playdata.productservice.product.controller;
 
 import com.playdata.productservice.common.dto.CommonResDto;
+import com.playdata.productservice.product.dto.ProductReserveReqDto;
+import com.playdata.productservice.product.dto.ProductReserveResDto;
 import com.playdata.productservice.product.dto.ProductResDto;
 import com.playdata.productservice.product.dto.ProductSaveReqDto;
 import com.playdata.productservice.product.dto.ProductSearchDto;
@@ -104,6 +106,28 @@ public class ProductContoller {
         return ResponseEntity.ok().body(resDto);
     }
 
+    // 주문 상세 전체의 재고를 한 번에 확인하고 차감하는 요청 (줄마다 처리 결과를 리턴)
+    @PostMapping("/reserve")
+    public ResponseEntity<?> reserveProducts(@RequestBody List<ProductReserveReqDto> reqList) {
+        log.info("/product/reserve: POST, reqList: {}", reqList);
+        List<ProductReserveResDto> results = productService.reserveProducts(reqList);
+        CommonResDto resDto
+                = new CommonResDto(HttpStatus.OK, "재고 예약 처리 완료", results);
+        return ResponseEntity.ok().body(resDto);
+    }
+
+    // 재고 차감 (읽어서 덮어쓰지 않고 차감할 수량만 전달) -> 결과: 차감 성공 여부
+    @PutMapping("/decreaseQuantity")
+    public ResponseEntity<?> decreaseStockQuantity(@RequestBody ProductReserveReqDto dto) {
+        log.info("/product/decreaseQuantity: PUT, prodId: {}, quantity: {}"
+                , dto.getProductId(), dto.getProductQuantity());
+        boolean decreased
+                = productService.decreaseStock(dto.getProductId(), dto.getProductQuantity());
+        CommonResDto resDto
+                = new CommonResDto(HttpStatus.OK, decreased ? "차감 완료" : "재고 부족", decreased);
+        return ResponseEntity.ok().body(resDto);
+    }
+
     // 한 사용자의 모든 주문 내역 안에 있는 상품 정보를 리턴하는 메서드
     @PostMapping("/products")
     public ResponseEntity<?> getProducts(@RequestBody List<Long> productIds) {
@@ -0,0 +1,20 @@
+package com.playdata.productservice.product.dto;
+
+import lombok.*;
+
+// 상품 정보가 바뀌거나 삭제되었을 때 다른 서비스에 알리는 이벤트
+// ordering-service는 이 이벤트를 받아서 자기가 들고 있는 상품 캐시를 비운다.
+@Getter @Setter @ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangedEvent {
+
+    private Long productId;
+    private ChangeType changeType;
+
+    public enum ChangeType {
+        UPDATED, DELETED
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.playdata.productservice.product.dto;
+
+import lombok.*;
+
+@Getter @Setter @ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductReserveReqDto {
+
+    // ordering-service의 주문 상세 요청(OrderingSaveReqDto)과 같은 모양으로 받습니다.
+    private Long productId;
+    private int productQuantity;
+
+}
@@ -4,7 +4,9 @@ import com.playdata.productservice.product.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -21,4 +23,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByIdIn(List<Long> ids);
 
+    // 재고를 읽어서 계산한 뒤 덮어쓰지 않고, DB에서 조건부로 한 번에 차감합니다.
+    // UPDATE tbl_product SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?
+    // 리턴값(변경된 행 수)이 1이면 차감 성공, 0이면 재고 부족 또는 상품 없음.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity " +
+            "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decreaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
 }
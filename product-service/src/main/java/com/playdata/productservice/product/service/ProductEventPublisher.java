@@ -0,0 +1,34 @@
+package com.playdata.productservice.product.service;
+
+import com.playdata.productservice.product.dto.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// ProductService가 발행한 상품 변경 이벤트를 RabbitMQ로 내보내는 역할
+// 커밋이 끝난 뒤에 발행해야, 롤백된 변경 때문에 다른 서비스 캐시가 비워지는 일이 없다.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventPublisher {
+
+    private static final String EXCHANGE = "product.exchange";
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @TransactionalEventListener
+    public void publish(ProductChangedEvent event) {
+        String routingKey = "product." + event.getChangeType().name().toLowerCase();
+        try {
+            rabbitTemplate.convertAndSend(EXCHANGE, routingKey, event);
+            log.info("상품 변경 이벤트 발행: {}", event);
+        } catch (Exception e) {
+            // 발행에 실패해도 상품 변경 자체는 이미 커밋됨.
+            // 받는 쪽 캐시는 TTL로 결국 만료되므로 로그만 남긴다.
+            log.warn("상품 변경 이벤트 발행 실패: {}, 이유: {}", event, e.getMessage());
+        }
+    }
+
+}
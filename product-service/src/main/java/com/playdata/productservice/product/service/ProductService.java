@@ -1,6 +1,10 @@
 package com.playdata.productservice.product.service;
 
 import com.playdata.productservice.common.configs.AwsS3Config;
+import com.playdata.productservice.product.dto.ProductChangedEvent;
+import com.playdata.productservice.product.dto.ProductReserveReqDto;
+import com.playdata.productservice.product.dto.ProductReserveResDto;
+import com.playdata.productservice.product.dto.ProductReserveResDto.ReserveResult;
 import com.playdata.productservice.product.dto.ProductResDto;
 import com.playdata.productservice.product.dto.ProductSaveReqDto;
 import com.playdata.productservice.product.dto.ProductSearchDto;
@@ -11,14 +15,20 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,6 +43,7 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final AwsS3Config s3Config;
     private final JPAQueryFactory factory;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Product productCreate(ProductSaveReqDto dto) throws IOException {
 
@@ -118,6 +129,12 @@ public class ProductService {
         s3Config.deleteFromS3Bucket(imageUrl);
 
         productRepository.deleteById(id);
+
+        // 커밋 후 다른 서비스에 삭제 사실을 알림 (ProductEventPublisher)
+        eventPublisher.publishEvent(ProductChangedEvent.builder()
+                .productId(id)
+                .changeType(ProductChangedEvent.ChangeType.DELETED)
+                .build());
     }
 
     public ProductResDto getProductInfo(Long prodId) {
@@ -144,6 +161,86 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    // 요청 수량만큼 재고를 조건부로 차감 (UPDATE 한 번). 재고가 모자라면 false.
+    public boolean decreaseStock(Long prodId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("차감 수량은 1 이상이어야 합니다.");
+        }
+        return productRepository.decreaseStock(prodId, quantity) == 1;
+    }
+
+    /*
+    주문 상세 전체에 대한 재고 확인 + 차감을 하나의 트랜잭션에서 처리합니다.
+    ordering-service가 주문 줄마다 findById + updateQuantity를 반복해서 부르던 것을 요청 한 번으로 대체.
+    모든 줄의 재고가 충분할 때만 차감하고(전부 아니면 전무), 줄마다 처리 결과를 돌려줍니다.
+     */
+    public List<ProductReserveResDto> reserveProducts(List<ProductReserveReqDto> reqList) {
+        // 같은 상품이 여러 줄에 나눠 들어올 수도 있으니 상품별 요청 수량을 합쳐 놓자.
+        // 상품 id 순서대로 UPDATE를 보내야 주문끼리 행 잠금 순서가 엇갈리지 않습니다. (deadlock 방지)
+        Map<Long, Integer> requestedMap = reqList.stream()
+                .collect(Collectors.groupingBy(
+                        ProductReserveReqDto::getProductId,
+                        TreeMap::new,
+                        Collectors.summingInt(ProductReserveReqDto::getProductQuantity)
+                ));
+
+        // SELECT 없이 상품마다 조건부 UPDATE 한 번씩. 하나라도 실패하면 나머지는 보낼 필요가 없다.
+        Set<Long> decreasedIds = new HashSet<>();
+        for (Map.Entry<Long, Integer> entry : requestedMap.entrySet()) {
+            if (!decreaseStock(entry.getKey(), entry.getValue())) {
+                break;
+            }
+            decreasedIds.add(entry.getKey());
+        }
+
+        List<ProductReserveResDto> results = new ArrayList<>();
+        if (decreasedIds.size() == requestedMap.size()) {
+            for (ProductReserveReqDto req : reqList) {
+                results.add(ProductReserveResDto.builder()
+                        .productId(req.getProductId())
+                        .requestedQuantity(req.getProductQuantity())
+                        .result(ReserveResult.RESERVED)
+                        .build());
+            }
+            log.info("재고 예약 성공 - 결과: {}", results);
+            return results;
+        }
+
+        // 실패했다면 앞에서 차감한 재고까지 전부 되돌린다. (예외 없이 롤백만 표시)
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+
+        // 실패 원인을 알려주기 위해서만 현재 재고를 조회.
+        // 이미 차감한 상품은 같은 트랜잭션 안에서 차감된 값이 보이니까 NOT_APPLIED로만 표시합니다.
+        Map<Long, Product> productMap = productRepository
+                .findByIdIn(new ArrayList<>(requestedMap.keySet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+
+        for (ProductReserveReqDto req : reqList) {
+            Product foundProduct = productMap.get(req.getProductId());
+            ReserveResult result;
+            if (decreasedIds.contains(req.getProductId())) {
+                result = ReserveResult.NOT_APPLIED;
+            } else if (foundProduct == null) {
+                result = ReserveResult.NOT_FOUND;
+            } else if (foundProduct.getStockQuantity() < requestedMap.get(req.getProductId())) {
+                result = ReserveResult.OUT_OF_STOCK;
+            } else {
+                result = ReserveResult.NOT_APPLIED;
+            }
+
+            results.add(ProductReserveResDto.builder()
+                    .productId(req.getProductId())
+                    .requestedQuantity(req.getProductQuantity())
+                    .result(result)
+                    .remainingQuantity(foundProduct == null ? 0 : foundProduct.getStockQuantity())
+                    .build());
+        }
+
+        log.info("재고 예약 실패 - 결과: {}", results);
+        return results;
+    }
+
     public void cancelProduct(Map<Long, Integer> map) {
         for (Long key : map.keySet()) {
             Product foundProd = productRepository.findById(key).orElseThrow(
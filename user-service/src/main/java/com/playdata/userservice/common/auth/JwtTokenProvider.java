@@ -34,15 +34,17 @@ public class JwtTokenProvider {
             "exp": "2023-12-27(만료일자)",
             "iat": "2023-11-27(발급일자)",
             "email": "로그인한 사람 이메일",
-            "role": "Premium"
+            "role": "Premium",
+            "userId": 회원 번호 (다른 서비스가 이메일로 회원 번호를 다시 조회하지 않도록)
             ...
             == 서명
         }
      */
-    public String createToken(String email, String role){
+    public String createToken(String email, String role, Long userId){
         // Claims: 페이로드에 들어갈 사용자 정보
         Claims claims = Jwts.claims().setSubject(email);
         claims.put("role", role);
+        claims.put("userId", userId);
         Date now = new Date();
 
         return Jwts.builder()
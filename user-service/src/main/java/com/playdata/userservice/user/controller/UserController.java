@@ -93,7 +93,7 @@ public class UserController implements UserControllerDocs{
         // 징표를 하나 만들어 주겠다. -> JWT를 발급해서 클라이언트에게 전달해 주겠다!
         // Access Token 발급 -> 수명이 짧습니다. (토큰 탈취 방지)
         String token
-                = jwtTokenProvider.createToken(user.getEmail(), user.getRole().toString());
+                = jwtTokenProvider.createToken(user.getEmail(), user.getRole().toString(), user.getId());
 
         // Refresh Token을 생성해 주겠다.
         // Access Token 수명이 만료되었을 경우 Refresh Token을 확인해서 리프레시가 유효한 경우
@@ -158,7 +158,7 @@ public class UserController implements UserControllerDocs{
         // 새로운 access token을 발급
         User user = userService.findById(id);
         String newAccessToken
-                = jwtTokenProvider.createToken(user.getEmail(), user.getRole().toString());
+                = jwtTokenProvider.createToken(user.getEmail(), user.getRole().toString(), user.getId());
 
         Map<String, Object> info = new HashMap<>();
         info.put("token", newAccessToken);
@@ -231,7 +231,7 @@ public class UserController implements UserControllerDocs{
         UserResDto resDto = userService.findOrCreateKakaoUser(dto);
 
         // JWT 토큰 생성 (우리 사이트 로그인 유지를 위해. 사용자 정보를 위해.)
-        String token = jwtTokenProvider.createToken(resDto.getEmail(), resDto.getRole().toString());
+        String token = jwtTokenProvider.createToken(resDto.getEmail(), resDto.getRole().toString(), resDto.getId());
         String refreshToken
                 = jwtTokenProvider.createRefreshToken(resDto.getEmail(), resDto.getRole().toString());
 